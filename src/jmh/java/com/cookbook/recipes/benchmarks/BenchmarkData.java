@@ -0,0 +1,99 @@
+package com.cookbook.recipes.benchmarks;
+
+import com.cookbook.recipes.model.Measure;
+import lombok.experimental.UtilityClass;
+import lombok.val;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/*
+Writes the NDJSON data files of a catalogue of the given size, loaded by the DataLoader like the seed data.
+
+Recipes are random but repeatable: instructions are drawn from a small vocabulary and ingredients from
+a larger one, so a word or an ingredient matches a share of the recipes whatever the size of the catalogue.
+ */
+@UtilityClass
+public class BenchmarkData {
+
+    public static final String INGREDIENTS_FILE = "ingredients.ndjson";
+    public static final String RECIPES_FILE = "recipes.ndjson";
+    public static final String RECIPE_INGREDIENTS_FILE = "recipe-ingredients.ndjson";
+
+    public static final List<String> INGREDIENT_NAMES = IntStream.rangeClosed(1, 200)
+            .mapToObj(ingredientId -> "ingredient-" + ingredientId)
+            .collect(Collectors.toList());
+
+    private static final List<String> WORDS = List.of("heat", "oven", "bake", "mix", "flour", "stir", "simmer",
+            "sauce", "chop", "onion", "garlic", "fry", "pan", "boil", "water", "salt", "serve", "cool", "whisk",
+            "butter", "knead", "dough", "roast", "grill", "season", "pepper", "slice", "dice", "peel", "drain",
+            "blend", "pour", "cover", "rest", "toss", "glaze", "brush", "fold", "melt", "steam");
+    private static final int INSTRUCTION_WORDS = 12;
+    private static final int MIN_INGREDIENTS = 3;
+    private static final int MAX_INGREDIENTS = 10;
+    private static final int MAX_SERVINGS = 8;
+    private static final long SEED = 42;
+
+    public void write(final Path directory, final int recipes) throws IOException {
+        val random = new Random(SEED);
+
+        try (val writer = Files.newBufferedWriter(directory.resolve(INGREDIENTS_FILE))) {
+            for (int index = 0; index < INGREDIENT_NAMES.size(); index++) {
+                writeLine(writer, Map.of("id", index + 1, "names", INGREDIENT_NAMES.get(index)));
+            }
+        }
+
+        long recipeIngredientId = 0;
+        try (val recipesWriter = Files.newBufferedWriter(directory.resolve(RECIPES_FILE));
+             val recipeIngredientsWriter = Files.newBufferedWriter(directory.resolve(RECIPE_INGREDIENTS_FILE))) {
+            for (long recipeId = 1; recipeId <= recipes; recipeId++) {
+                val instruction = random.ints(INSTRUCTION_WORDS, 0, WORDS.size())
+                        .mapToObj(WORDS::get)
+                        .collect(Collectors.joining(" "));
+                val recipe = new HashMap<String, Object>();
+                recipe.put("id", recipeId);
+                recipe.put("names", "Recipe " + recipeId);
+                recipe.put("descriptions", "Benchmark recipe " + recipeId);
+                recipe.put("instructions", instruction);
+                recipe.put("images", "recipe-" + recipeId + ".jpg");
+                recipe.put("created_at", "2022-07-24");
+                recipe.put("is_vegetarian", random.nextBoolean());
+                recipe.put("number_of_servings", 1 + random.nextInt(MAX_SERVINGS));
+                writeLine(recipesWriter, recipe);
+
+                val ingredientIds = new LinkedHashSet<Integer>();
+                val ingredients = MIN_INGREDIENTS + random.nextInt(MAX_INGREDIENTS - MIN_INGREDIENTS + 1);
+                while (ingredientIds.size() < ingredients) {
+                    ingredientIds.add(1 + random.nextInt(INGREDIENT_NAMES.size()));
+                }
+                for (val ingredientId : ingredientIds) {
+                    writeLine(recipeIngredientsWriter, Map.of(
+                            "id", ++recipeIngredientId,
+                            "recipe_id", recipeId,
+                            "ingredient_id", ingredientId,
+                            "amount", 1 + random.nextInt(500),
+                            "measures", Measure.values()[random.nextInt(Measure.values().length)].getValue()));
+                }
+            }
+        }
+    }
+
+    // Values are numbers, booleans or strings without characters to escape
+    private void writeLine(final BufferedWriter writer, final Map<String, Object> row) throws IOException {
+        writer.write(row.entrySet()
+                .stream()
+                .map(column -> String.format(column.getValue() instanceof String ? "\"%s\": \"%s\"" : "\"%s\": %s",
+                        column.getKey(), column.getValue()))
+                .collect(Collectors.joining(", ", "{", "}")));
+        writer.newLine();
+    }
+}
@@ -0,0 +1,42 @@
+package com.cookbook.recipes.benchmarks;
+
+import com.cookbook.recipes.model.Measure;
+import com.cookbook.recipes.model.converter.MeasureConverter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+Converts the measure of every recipe ingredient read from or written to the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeasureConverterBenchmark {
+
+    // The first and the last measure, the values are searched in declaration order
+    @Param({"gram", "tablespoon"})
+    private String value;
+
+    private final MeasureConverter measureConverter = new MeasureConverter();
+
+    private Measure measure;
+
+    @Setup
+    public void setUp() {
+        measure = measureConverter.convertToEntityAttribute(value);
+    }
+
+    @Benchmark
+    public Measure convertToEntityAttribute() {
+        return measureConverter.convertToEntityAttribute(value);
+    }
+
+    @Benchmark
+    public String convertToDatabaseColumn() {
+        return measureConverter.convertToDatabaseColumn(measure);
+    }
+}
@@ -0,0 +1,64 @@
+package com.cookbook.recipes.benchmarks;
+
+import com.cookbook.recipes.mapper.RecipeMapper;
+import com.cookbook.recipes.mapper.RecipeMapperImpl;
+import com.cookbook.recipes.model.GeneratedRecipe;
+import com.cookbook.recipes.model.Ingredient;
+import com.cookbook.recipes.model.Recipe;
+import com.cookbook.recipes.model.RecipeIngredient;
+import lombok.val;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import static com.cookbook.recipes.util.TestDataFactory.*;
+
+/*
+Maps a recipe with its ingredients to the API model, as every read does, and back, as every write does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeMapperBenchmark {
+
+    // The seed recipes have 2 to 5 ingredients
+    @Param({"1", "5", "25"})
+    private int ingredients;
+
+    private final RecipeMapper recipeMapper = new RecipeMapperImpl();
+
+    private Recipe recipe;
+    private GeneratedRecipe generatedRecipe;
+
+    @Setup
+    public void setUp() {
+        recipe = getRecipe();
+        val recipeIngredients = new HashSet<RecipeIngredient>();
+        for (long ingredientId = 1; ingredientId <= ingredients; ingredientId++) {
+            val recipeIngredient = getRecipeIngredient(ingredientId, Ingredient.builder()
+                    .id(ingredientId)
+                    .name(INGREDIENT_NAME + ingredientId)
+                    .build());
+            recipeIngredient.setRecipe(recipe);
+            recipeIngredients.add(recipeIngredient);
+        }
+        recipe.setRecipeIngredients(recipeIngredients);
+        generatedRecipe = recipeMapper.toGeneratedRecipe(recipe);
+        generatedRecipe.setInstruction(NON_SANITIZED_INSTRUCTION);
+    }
+
+    @Benchmark
+    public GeneratedRecipe toGeneratedRecipe() {
+        return recipeMapper.toGeneratedRecipe(recipe);
+    }
+
+    // The instruction is sanitized
+    @Benchmark
+    public Recipe toRecipe() {
+        return recipeMapper.toRecipe(generatedRecipe);
+    }
+}
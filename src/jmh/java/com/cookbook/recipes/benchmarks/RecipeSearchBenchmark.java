@@ -0,0 +1,131 @@
+package com.cookbook.recipes.benchmarks;
+
+import com.cookbook.recipes.BspcRecipesApplication;
+import com.cookbook.recipes.domain.cache.SearchResultCache;
+import com.cookbook.recipes.domain.services.RecipeService;
+import com.cookbook.recipes.model.GeneratedFilterCriteria;
+import com.cookbook.recipes.model.GeneratedFilterValues;
+import com.cookbook.recipes.model.GeneratedRecipe;
+import com.cookbook.recipes.model.GeneratedSearchFilter;
+import lombok.val;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.cookbook.recipes.util.TestDataFactory.getGeneratedSearchFilter;
+
+/*
+Runs the search filters of RecipeService against an H2 database seeded with the given number of recipes,
+one filter for each path: the full-text index, the ingredient index and a query of the database.
+
+The application is started without a web server from the dev profile and its DataLoader,
+only the data files and the database are replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecipeSearchBenchmark {
+
+    @Param({"1000", "10000"})
+    private int recipes;
+
+    private Path dataDirectory;
+    private ConfigurableApplicationContext applicationContext;
+    private RecipeService recipeService;
+    private SearchResultCache searchResultCache;
+
+    private GeneratedSearchFilter instructionFilter;
+    private GeneratedSearchFilter ingredientsFilter;
+    private GeneratedSearchFilter isVegetarianAndNumberOfServingsFilter;
+
+    @Setup
+    public void setUp() throws IOException {
+        dataDirectory = Files.createTempDirectory("recipes-benchmark");
+        BenchmarkData.write(dataDirectory, recipes);
+
+        applicationContext = new SpringApplicationBuilder(BspcRecipesApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("dev")
+                .run(getArguments());
+        recipeService = applicationContext.getBean(RecipeService.class);
+        searchResultCache = applicationContext.getBean(SearchResultCache.class);
+
+        instructionFilter = getGeneratedSearchFilter(GeneratedFilterCriteria.INSTRUCTION,
+                GeneratedFilterValues.builder().instruction("simmer garlic").build());
+        ingredientsFilter = getGeneratedSearchFilter(GeneratedFilterCriteria.INCL_INGREDIENTS,
+                GeneratedFilterValues.builder().ingredients(Set.of("ingredient-1", "ingredient-2")).build());
+        isVegetarianAndNumberOfServingsFilter = getGeneratedSearchFilter(
+                GeneratedFilterCriteria.IS_VEGETARIAN_AND_NUMBER_OF_SERVINGS,
+                GeneratedFilterValues.builder().isVegetarian(true).numberOfServings(4).build());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        applicationContext.close();
+        FileSystemUtils.deleteRecursively(dataDirectory);
+    }
+
+    @Benchmark
+    public List<GeneratedRecipe> postRecipesBySearchFilter_byTextIndex() {
+        return search(instructionFilter);
+    }
+
+    @Benchmark
+    public List<GeneratedRecipe> postRecipesBySearchFilter_byIngredientIndex() {
+        return search(ingredientsFilter);
+    }
+
+    @Benchmark
+    public List<GeneratedRecipe> postRecipesBySearchFilter_byDatabase() {
+        return search(isVegetarianAndNumberOfServingsFilter);
+    }
+
+    // A new generation of the search result cache, so every filter is run instead of its cached ids
+    private List<GeneratedRecipe> search(final GeneratedSearchFilter generatedSearchFilter) {
+        searchResultCache.onDataLoaded();
+        return recipeService.postRecipesBySearchFilter(generatedSearchFilter);
+    }
+
+    // Arguments override the dev profile, default properties of the builder would not
+    private String[] getArguments() {
+        val properties = new LinkedHashMap<String, String>();
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:benchmark-db");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("logging.level.root", "WARN");
+        addDataFile(properties, 0, "ingredients", "id, names", BenchmarkData.INGREDIENTS_FILE);
+        addDataFile(properties, 1, "recipes",
+                "id, names, descriptions, instructions, images, created_at, is_vegetarian, number_of_servings",
+                BenchmarkData.RECIPES_FILE);
+        addDataFile(properties, 2, "recipe_ingredients", "id, recipe_id, ingredient_id, amount, measures",
+                BenchmarkData.RECIPE_INGREDIENTS_FILE);
+        return properties.entrySet()
+                .stream()
+                .map(property -> String.format("--%s=%s", property.getKey(), property.getValue()))
+                .toArray(String[]::new);
+    }
+
+    // The files of the dev profile are replaced as a whole list
+    private void addDataFile(final Map<String, String> properties, final int index, final String table,
+                             final String columns, final String file) {
+        val prefix = "recipes.data-loader.files[" + index + "].";
+        properties.put(prefix + "table", table);
+        properties.put(prefix + "sequence", table + "_seq");
+        properties.put(prefix + "columns", columns);
+        properties.put(prefix + "location", dataDirectory.resolve(file).toUri().toString());
+    }
+}
@@ -0,0 +1,63 @@
+package com.cookbook.recipes.benchmarks;
+
+import com.cookbook.recipes.mapper.utils.SanitizePolicy;
+import com.cookbook.recipes.mapper.utils.TransformHelper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.cookbook.recipes.util.TestDataFactory.INSTRUCTION;
+import static com.cookbook.recipes.util.TestDataFactory.NON_SANITIZED_INSTRUCTION;
+
+/*
+Sanitizes the instruction of every written recipe, most instructions contain nothing to remove.
+The replaceAll benchmarks are the regular expression the sanitizer replaced, as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformHelperBenchmark {
+
+    private static final String REGEX = "[&<>]";
+
+    // Times the instruction is repeated, the seed instructions are as long as a single one
+    @Param({"1", "50"})
+    private int repeats;
+
+    private String instruction;
+    private String nonSanitizedInstruction;
+
+    @Setup
+    public void setUp() {
+        instruction = INSTRUCTION.repeat(repeats);
+        nonSanitizedInstruction = NON_SANITIZED_INSTRUCTION.repeat(repeats);
+    }
+
+    @Benchmark
+    public String sanitize() {
+        return TransformHelper.sanitize(instruction);
+    }
+
+    @Benchmark
+    public String sanitize_nonSanitized() {
+        return TransformHelper.sanitize(nonSanitizedInstruction);
+    }
+
+    @Benchmark
+    public String sanitize_stripTags() {
+        return TransformHelper.sanitize(nonSanitizedInstruction, SanitizePolicy.STRIP_TAGS);
+    }
+
+    @Benchmark
+    public String replaceAll() {
+        return instruction.replaceAll(REGEX, "");
+    }
+
+    @Benchmark
+    public String replaceAll_nonSanitized() {
+        return nonSanitizedInstruction.replaceAll(REGEX, "");
+    }
+}
@@ -2,8 +2,13 @@ package com.cookbook.recipes;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+/*
+The auto-configured R2DBC ConnectionFactory would make the JDBC DataSource back off,
+the reactive profile creates its own connection pool instead, see ReactiveConfig.
+ */
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class BspcRecipesApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,47 @@
+package com.cookbook.recipes.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.val;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/*
+Caffeine caches configured by spring.cache.* properties.
+
+A changed recipe is evicted by RecipeCache after the change is committed. The cache manager is not
+transaction aware, an eviction it deferred to the commit would be lost when requested after the commit.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CachingConfig {
+
+    public static final String RECIPES_CACHE = "recipes";
+    public static final String SEARCH_RESULTS_CACHE = "searchResults";
+    // Search results are weighed by their number of recipe ids
+    private static final long SEARCH_RESULTS_MAXIMUM_IDS = 1_000_000;
+    private static final Duration SEARCH_RESULTS_TTL = Duration.ofMinutes(10);
+
+    @Bean
+    public CacheManager cacheManager(final CacheProperties cacheProperties) {
+        val caffeineCacheManager = new CaffeineCacheManager();
+        caffeineCacheManager.setCacheSpecification(cacheProperties.getCaffeine().getSpec());
+        // Caches are created up front, so their metrics are registered at startup
+        caffeineCacheManager.setCacheNames(cacheProperties.getCacheNames());
+        caffeineCacheManager.registerCustomCache(SEARCH_RESULTS_CACHE, Caffeine.newBuilder()
+                .maximumWeight(SEARCH_RESULTS_MAXIMUM_IDS)
+                .<Object, Object>weigher((key, recipeIds) -> Math.max(1, ((List<?>) recipeIds).size()))
+                .expireAfterWrite(SEARCH_RESULTS_TTL)
+                .recordStats()
+                .build());
+        return caffeineCacheManager;
+    }
+}
@@ -0,0 +1,22 @@
+package com.cookbook.recipes.config;
+
+import com.cookbook.recipes.domain.loader.DataLoader;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/*
+The loader is declared here instead of being scanned, so test slices (e.g. @DataJpaTest)
+import this configuration and start with the same data as the application.
+ */
+@Configuration
+@EnableConfigurationProperties(DataLoaderProperties.class)
+public class DataLoaderConfig {
+
+    @Bean
+    public DataLoader dataLoader(final DataSource dataSource, final DataLoaderProperties dataLoaderProperties) {
+        return new DataLoader(dataSource, dataLoaderProperties);
+    }
+}
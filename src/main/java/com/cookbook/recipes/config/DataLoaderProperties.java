@@ -0,0 +1,35 @@
+package com.cookbook.recipes.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Data files loaded by the DataLoader, in the order of the list, so referenced tables are loaded first.
+ */
+@Data
+@ConfigurationProperties(prefix = "recipes.data-loader")
+public class DataLoaderProperties {
+
+    // Loads the data files at startup, before the indexes are loaded
+    private boolean enabled;
+    private int batchSize = 1_000;
+    private int commitInterval = 10_000;
+    private int progressInterval = 100_000;
+    private List<DataFile> files = new ArrayList<>();
+
+    @Data
+    public static class DataFile {
+
+        private String table;
+        // Restarted after the highest id of the table, so generated ids continue after the loaded rows
+        private String sequence;
+        // Fields of a line which are not columns are ignored, missing fields are null
+        private List<String> columns = new ArrayList<>();
+        // One JSON object per line, e.g. classpath:data/recipes.ndjson or file:/restore/recipes.ndjson
+        private Resource location;
+    }
+}
@@ -0,0 +1,51 @@
+package com.cookbook.recipes.config;
+
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/*
+Bounded executors of the recipe operations, see ExecutorProperties.
+
+Every executor bean is bound to the executor.* metrics (e.g. executor.queued, executor.active)
+tagged with its name, so the queue depth of each pool is reported by the metrics endpoint.
+ */
+@Configuration
+@EnableConfigurationProperties(ExecutorProperties.class)
+public class ExecutorConfig {
+
+    public static final String INTERACTIVE_EXECUTOR = "interactiveExecutor";
+    public static final String BULK_EXECUTOR = "bulkExecutor";
+
+    @Bean(INTERACTIVE_EXECUTOR)
+    public ThreadPoolTaskExecutor interactiveExecutor(final TaskExecutorBuilder taskExecutorBuilder,
+                                                      final ExecutorProperties executorProperties) {
+        return build(taskExecutorBuilder, executorProperties.getInteractive(), "interactive-");
+    }
+
+    /*
+    Also the executor of asynchronous MVC requests, which Spring Boot looks up by the name of its own executor.
+    The streaming export holds a connection for the whole stream, so it runs on a bulk thread
+    and is counted in the connection budget with the other operations.
+    */
+    @Bean(name = {BULK_EXECUTOR, TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor bulkExecutor(final TaskExecutorBuilder taskExecutorBuilder,
+                                               final ExecutorProperties executorProperties) {
+        return build(taskExecutorBuilder, executorProperties.getBulk(), "bulk-");
+    }
+
+    private static ThreadPoolTaskExecutor build(final TaskExecutorBuilder taskExecutorBuilder,
+                                                final ExecutorProperties.Pool pool, final String threadNamePrefix) {
+        return taskExecutorBuilder
+                .corePoolSize(pool.getSize())
+                .maxPoolSize(pool.getSize())
+                .queueCapacity(pool.getQueueCapacity())
+                .threadNamePrefix(threadNamePrefix)
+                .build();
+    }
+}
@@ -0,0 +1,32 @@
+package com.cookbook.recipes.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/*
+Thread pools running the work of the recipe operations, sized separately from the servlet threads.
+An operation holds at most one connection at a time, missing ingredients of a write are inserted before
+its transaction starts (see IngredientDictionary). Together the pools should not have more threads than
+the connection pool, so no thread waits for a connection.
+ */
+@Data
+@ConfigurationProperties(prefix = "recipes.executors")
+public class ExecutorProperties {
+
+    // Single recipes and pages of recipes, each a few short queries
+    private Pool interactive = new Pool(8, 200);
+    // Search filters, batches and exports, which may run for seconds and must not hold up interactive requests
+    private Pool bulk = new Pool(2, 20);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Pool {
+
+        private int size;
+        // Work beyond the queue is rejected with 503 instead of waiting without bound
+        private int queueCapacity;
+    }
+}
@@ -0,0 +1,24 @@
+package com.cookbook.recipes.config;
+
+import com.cookbook.recipes.domain.metrics.QueryStatistics;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+Registers the Hibernate hooks of QueryStatistics. Declared here instead of in application properties,
+so test slices (e.g. @DataJpaTest) import this configuration and count the statements alike.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryStatisticsCustomizer() {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                    new QueryStatistics.CountingStatementInspector());
+            hibernateProperties.put(AvailableSettings.INTERCEPTOR, new QueryStatistics.CountingInterceptor());
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.cookbook.recipes.config;
+
+import com.cookbook.recipes.domain.services.RecipeService;
+import com.cookbook.recipes.mapper.RecipeMapper;
+import com.cookbook.recipes.repository.reactive.ReactiveRecipeRepository;
+import com.cookbook.recipes.web.reactive.ReactiveRecipesHandler;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import lombok.val;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+
+/*
+Reactive read path of the reactive profile (spring.main.web-application-type=reactive).
+
+GET /recipes, GET /recipes/{recipe_id} and POST /recipes/filter are served by WebFlux and R2DBC against the
+database of the JPA repositories, configured by spring.r2dbc.*. Writes, the export and the batch import stay
+on the servlet stack of the default profile, RecipesOperation is not started here.
+
+The connection pool is not a bean: a ConnectionFactory bean would make Spring Boot back off the DataSource,
+which the JPA repositories, the indexes and the DataLoader still need. It is closed with the repository.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class ReactiveConfig {
+
+    @Bean
+    public ReactiveRecipeRepository reactiveRecipeRepository(final R2dbcProperties r2dbcProperties) {
+        val connectionFactory = ConnectionFactoryBuilder.withUrl(r2dbcProperties.getUrl())
+                .username(r2dbcProperties.getUsername())
+                .password(r2dbcProperties.getPassword())
+                .build();
+        val pool = r2dbcProperties.getPool();
+        return new ReactiveRecipeRepository(new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .initialSize(pool.getInitialSize())
+                .maxSize(pool.getMaxSize())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .build()));
+    }
+
+    @Bean
+    public ReactiveRecipesHandler reactiveRecipesHandler(final ReactiveRecipeRepository reactiveRecipeRepository,
+                                                         final RecipeService recipeService,
+                                                         final RecipeMapper recipeMapper) {
+        return new ReactiveRecipesHandler(reactiveRecipeRepository, recipeService, recipeMapper);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> recipesRoutes(final ReactiveRecipesHandler reactiveRecipesHandler) {
+        return RouterFunctions.route(GET("/recipes"), reactiveRecipesHandler::getAllRecipes)
+                .andRoute(GET("/recipes/{recipe_id}"), reactiveRecipesHandler::getRecipeById)
+                .andRoute(POST("/recipes/filter"), reactiveRecipesHandler::postRecipesBySearchFilter);
+    }
+}
@@ -0,0 +1,72 @@
+package com.cookbook.recipes.domain.cache;
+
+import com.cookbook.recipes.domain.events.RecipeChangedEvent;
+import com.cookbook.recipes.model.GeneratedRecipe;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.cookbook.recipes.config.CachingConfig.RECIPES_CACHE;
+
+/*
+Read-through cache of single recipes, a recipe is evicted after a change of it is committed.
+
+A reader which missed before a change was committed could put the old recipe after the eviction,
+so every put is versioned by the evictions of its recipe: a reader takes a stamp before it reads
+the database and evicts its own put again when the recipe was evicted since. An eviction is either
+seen by the reader or happens after its put, so an old recipe is never served after the eviction.
+
+Evictions are counted in stripes of recipe ids, an eviction of another recipe of the same stripe
+only costs a cache miss.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecipeCache {
+
+    private static final int STRIPES = 64;
+
+    private final CacheManager cacheManager;
+
+    private final AtomicLongArray evictions = new AtomicLongArray(STRIPES);
+
+    public Optional<GeneratedRecipe> get(final Long recipeId) {
+        return Optional.ofNullable(recipesCache().get(recipeId, GeneratedRecipe.class));
+    }
+
+    // Taken before the recipe is read from the database
+    public long stamp(final Long recipeId) {
+        return evictions.get(stripe(recipeId));
+    }
+
+    public void put(final Long recipeId, final GeneratedRecipe generatedRecipe, final long stamp) {
+        val recipesCache = recipesCache();
+        recipesCache.put(recipeId, generatedRecipe);
+        if (stamp(recipeId) != stamp) {
+            recipesCache.evict(recipeId);
+        }
+    }
+
+    // Without a transaction (e.g. a created recipe) the event is handled immediately
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(final RecipeChangedEvent recipeChangedEvent) {
+        val recipesCache = recipesCache();
+        recipeChangedEvent.getRecipeIds().forEach(recipeId -> {
+            evictions.incrementAndGet(stripe(recipeId));
+            recipesCache.evict(recipeId);
+        });
+    }
+
+    private Cache recipesCache() {
+        return cacheManager.getCache(RECIPES_CACHE);
+    }
+
+    private static int stripe(final Long recipeId) {
+        return Math.floorMod(recipeId.hashCode(), STRIPES);
+    }
+}
@@ -0,0 +1,39 @@
+package com.cookbook.recipes.domain.cache;
+
+import com.cookbook.recipes.domain.events.DataLoadedEvent;
+import com.cookbook.recipes.domain.events.RecipeChangedEvent;
+import com.cookbook.recipes.mapper.utils.ETagHelper;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Counts the changes of all recipes, its state is the ETag of the recipe list.
+
+The count is incremented after a change is committed, so a page read before the commit is never tagged
+with the new count. It starts at the startup time of the application, so an ETag of an earlier run does
+not match after a restart. Every instance counts its own changes, behind a load balancer a client may
+get a full response instead of 304 when it is served by another instance, but never a stale one.
+ */
+@Component
+public class RecipeChangeCounter {
+
+    private final long startedAt = System.currentTimeMillis();
+    private final AtomicLong changes = new AtomicLong();
+
+    public String eTag() {
+        return ETagHelper.toETag(startedAt + "-" + changes.get());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(final RecipeChangedEvent recipeChangedEvent) {
+        changes.incrementAndGet();
+    }
+
+    @EventListener(DataLoadedEvent.class)
+    public void onDataLoaded() {
+        changes.incrementAndGet();
+    }
+}
@@ -0,0 +1,133 @@
+package com.cookbook.recipes.domain.cache;
+
+import com.cookbook.recipes.domain.events.DataLoadedEvent;
+import com.cookbook.recipes.domain.events.RecipeChangedEvent;
+import com.cookbook.recipes.model.FilterExpression;
+import com.cookbook.recipes.model.FilterOperator;
+import com.cookbook.recipes.model.FilterValues;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.val;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static com.cookbook.recipes.config.CachingConfig.SEARCH_RESULTS_CACHE;
+
+/*
+Caches the ids of the recipes matching a filter, the recipes themselves are fetched by id on every request.
+
+A filter is keyed by its canonical form, so filters differing only in the order of their ingredients,
+the case of their instruction or the order of AND/OR operands share one entry.
+Every key carries the current generation, which is incremented whenever a recipe is created, updated
+or deleted, or data files are loaded. Entries of older generations are never read again and age out
+of the bounded cache, so no change has to be traced to the filters it affects.
+
+A key is taken before the filter is run, so a result computed while a recipe changes is stored
+under the generation it may have missed and cannot be served after the change.
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchResultCache {
+
+    private static final Pattern ESCAPED_CHARACTERS = Pattern.compile("[\\\\,\\[\\]()]");
+
+    private final CacheManager cacheManager;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public SearchKey keyOf(final FilterExpression filterExpression) {
+        return new SearchKey(generation.get(), canonicalForm(filterExpression));
+    }
+
+    @SuppressWarnings("unchecked")
+    public Optional<List<Long>> get(final SearchKey searchKey) {
+        return Optional.ofNullable(searchResultsCache().get(searchKey))
+                .map(valueWrapper -> (List<Long>) valueWrapper.get());
+    }
+
+    public void put(final SearchKey searchKey, final List<Long> recipeIds) {
+        searchResultsCache().put(searchKey, List.copyOf(recipeIds));
+    }
+
+    // Runs after the indexes are updated, otherwise the new generation could cache results of stale indexes
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(final RecipeChangedEvent recipeChangedEvent) {
+        generation.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener(DataLoadedEvent.class)
+    public void onDataLoaded() {
+        generation.incrementAndGet();
+    }
+
+    private Cache searchResultsCache() {
+        return cacheManager.getCache(SEARCH_RESULTS_CACHE);
+    }
+
+    static String canonicalForm(final FilterExpression filterExpression) {
+        val filterOperator = filterExpression.getOperator();
+
+        if (filterOperator.isLogical()) {
+            val operands = filterExpression.getOperands()
+                    .stream()
+                    .map(SearchResultCache::canonicalForm);
+            // AND and OR are commutative, the operand of NOT is kept as is
+            val canonicalOperands = filterOperator == FilterOperator.NOT
+                    ? operands.collect(Collectors.joining(","))
+                    : operands.sorted().collect(Collectors.joining(","));
+            return filterOperator.name() + "(" + canonicalOperands + ")";
+        }
+
+        return filterOperator.name() + "[" + canonicalValue(filterOperator, filterExpression.getFilterValues()) + "]";
+    }
+
+    private static String canonicalValue(final FilterOperator filterOperator, final FilterValues filterValues) {
+        switch (filterOperator) {
+            case INSTRUCTION:
+                // The instruction is matched ignoring case
+                return escape(filterValues.getInstruction().toLowerCase(Locale.ROOT));
+            case IS_VEGETARIAN:
+                return filterValues.getIsVegetarian().toString();
+            case NUMBER_OF_SERVINGS:
+            case NUMBER_OF_SERVINGS_GREATER_THAN_EQUAL:
+                return filterValues.getNumberOfServings().toString();
+            case INCL_INGREDIENTS:
+            case EXCL_INGREDIENTS:
+                // Ingredient names are matched exactly, only their order is irrelevant
+                return new TreeSet<>(filterValues.getIngredients())
+                        .stream()
+                        .map(SearchResultCache::escape)
+                        .collect(Collectors.joining(","));
+            default:
+                throw new IllegalArgumentException(
+                        String.format("Filter operator %s is not a predicate", filterOperator.getValue()));
+        }
+    }
+
+    // Values are escaped, so no instruction or ingredient can imitate the structure of another filter
+    private static String escape(final String filterValue) {
+        return ESCAPED_CHARACTERS.matcher(filterValue).replaceAll("\\\\$0");
+    }
+
+    @Value
+    public static class SearchKey {
+
+        long generation;
+        String canonicalFilter;
+    }
+}
@@ -0,0 +1,13 @@
+package com.cookbook.recipes.domain.events;
+
+import lombok.Value;
+
+/*
+Published when data files are loaded on demand, after their rows are committed.
+Listeners keeping derived data of recipes reload all of it.
+ */
+@Value
+public class DataLoadedEvent {
+
+    long rows;
+}
@@ -0,0 +1,23 @@
+package com.cookbook.recipes.domain.events;
+
+import lombok.Value;
+
+import java.util.List;
+
+/*
+Published by the services when recipes are created, updated or deleted, a batch publishes
+one event for all recipes of a chunk. Listeners keeping derived data of recipes reload the recipes by their ids.
+ */
+@Value
+public class RecipeChangedEvent {
+
+    List<Long> recipeIds;
+
+    public RecipeChangedEvent(final Long recipeId) {
+        this(List.of(recipeId));
+    }
+
+    public RecipeChangedEvent(final List<Long> recipeIds) {
+        this.recipeIds = List.copyOf(recipeIds);
+    }
+}
@@ -1,13 +1,21 @@
 package com.cookbook.recipes.domain.exception;
 
 import com.cookbook.recipes.model.Problem;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import javax.persistence.OptimisticLockException;
+
 @ControllerAdvice
 public class RestResponseExceptionHandler {
 
+    private static final String RETRY_AFTER_SECONDS = "1";
+
     @ExceptionHandler(BusinessServiceException.class)
     public ResponseEntity<Problem> handleBusinessServiceException(BusinessServiceException businessServiceException) {
         return ResponseEntity
@@ -18,4 +26,32 @@ public class RestResponseExceptionHandler {
                                 .message(businessServiceException.getMessage())
                                 .build());
     }
+
+    /*
+    A recipe changed by another request after its version was checked, see RecipeService.
+    The flush of the service throws the JPA exception, the commit the translated one of Spring.
+     */
+    @ExceptionHandler({OptimisticLockException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<Problem> handleOptimisticLockException(RuntimeException optimisticLockException) {
+        return ResponseEntity
+                .status(HttpStatus.PRECONDITION_FAILED)
+                .body(
+                        Problem.builder()
+                                .code(HttpStatus.PRECONDITION_FAILED.toString())
+                                .message("Recipe has been changed by another request")
+                                .build());
+    }
+
+    // A full executor queue, see ExecutorConfig
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Problem> handleTaskRejectedException(TaskRejectedException taskRejectedException) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(
+                        Problem.builder()
+                                .code(HttpStatus.SERVICE_UNAVAILABLE.toString())
+                                .message("Too many requests are waiting, please try again later")
+                                .build());
+    }
 }
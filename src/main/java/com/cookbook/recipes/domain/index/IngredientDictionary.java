@@ -0,0 +1,118 @@
+package com.cookbook.recipes.domain.index;
+
+import com.cookbook.recipes.model.Ingredient;
+import com.cookbook.recipes.repository.IngredientRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+Dictionary from an ingredient name to its id, so writes resolve the ingredients of a recipe
+with a map lookup instead of querying and scanning the ingredients table.
+
+Ingredients are read-mostly reference data. The dictionary is loaded when the application is ready
+and an ingredient is added as soon as it is read or inserted by a write.
+A name is only mapped once, so concurrent writers never replace each other's id.
+
+A missing ingredient is inserted in its own transaction. Ingredient names are unique, so when
+concurrent writers insert the same name only one insert succeeds and the others read its row.
+Writers converge on one ingredient row without holding any lock of their own.
+
+Writers insert their missing ingredients before their own transaction starts, see insertMissing.
+Inside it the insert would need a second connection of the pool on the same thread, and writers
+holding every connection of the pool would wait for each other until the pool times out.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IngredientDictionary {
+
+    private static final int MAX_INSERT_ATTEMPTS = 3;
+
+    private final IngredientRepository ingredientRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<String, Long> ingredientIds = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        ingredientRepository.findAll().forEach(ingredient -> register(ingredient.getName(), ingredient.getId()));
+
+        log.info("Ingredient dictionary is loaded with {} ingredients", ingredientIds.size());
+    }
+
+    /*
+    Adds the ingredients of the names to the dictionary. Only names missing from the dictionary
+    (e.g. inserted by another instance) are looked up in one query, ingredients which do not exist yet
+    are inserted. Has to be called before the transaction of a write when it may insert an ingredient.
+    */
+    public void insertMissing(final Set<String> ingredientNames) {
+        val unknownIngredientNames = ingredientNames.stream()
+                .filter(ingredientName -> !ingredientIds.containsKey(ingredientName))
+                .collect(Collectors.toSet());
+
+        if (!unknownIngredientNames.isEmpty()) {
+            ingredientRepository.findAllByNameIn(unknownIngredientNames)
+                    .forEach(ingredient -> register(ingredient.getName(), ingredient.getId()));
+            unknownIngredientNames.stream()
+                    .filter(ingredientName -> !ingredientIds.containsKey(ingredientName))
+                    .forEach(ingredientName -> register(ingredientName, insertIngredient(ingredientName)));
+        }
+    }
+
+    // Resolves ingredient names to references of their ingredients, a reference is created without a query
+    public Map<String, Ingredient> resolve(final Set<String> ingredientNames) {
+        insertMissing(ingredientNames);
+
+        return ingredientNames.stream()
+                .collect(Collectors.toMap(Function.identity(),
+                        ingredientName -> ingredientRepository.getReferenceById(ingredientIds.get(ingredientName))));
+    }
+
+    /*
+    The insert commits on its own, so concurrent writers see the row as soon as they hit the unique constraint.
+    An ingredient inserted by a writer which rolls back later is kept, it is reference data only.
+    */
+    private Long insertIngredient(final String ingredientName) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException(String.format(
+                    "Ingredient %s has to be inserted before the transaction of the write starts", ingredientName));
+        }
+        val transactionTemplate = new TransactionTemplate(transactionManager);
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> ingredientRepository
+                        .saveAndFlush(Ingredient.builder().name(ingredientName).build())
+                        .getId());
+            } catch (DataIntegrityViolationException exception) {
+                // Another writer inserted the same name first, its row is used
+                val ingredient = ingredientRepository.findByName(ingredientName);
+                if (ingredient.isPresent()) {
+                    return ingredient.get().getId();
+                }
+                // The other writer rolled back its insert, so this one is tried again
+                if (attempt == MAX_INSERT_ATTEMPTS) {
+                    throw exception;
+                }
+            }
+        }
+    }
+
+    private void register(final String ingredientName, final Long ingredientId) {
+        ingredientIds.putIfAbsent(ingredientName, ingredientId);
+    }
+}
@@ -0,0 +1,208 @@
+package com.cookbook.recipes.domain.index;
+
+import com.cookbook.recipes.domain.events.DataLoadedEvent;
+import com.cookbook.recipes.domain.events.RecipeChangedEvent;
+import com.cookbook.recipes.model.FilterExpression;
+import com.cookbook.recipes.model.FilterOperator;
+import com.cookbook.recipes.model.RecipeIngredientEntry;
+import com.cookbook.recipes.repository.RecipeIngredientRepository;
+import com.cookbook.recipes.repository.RecipeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/*
+Inverted index from an ingredient to the ids of the recipes using it, kept in compressed Roaring bitmaps.
+Filters made of ingredient predicates only are resolved here with bitmap AND, OR and ANDNOT operations,
+so the database only fetches the resulting recipes by id instead of joining recipe_ingredients.
+
+Recipe ids are stored as int values of the bitmaps.
+The index is loaded when the application is ready and every changed recipe is reloaded
+after its transaction commits. Until the index is loaded filters are run by the database.
+
+Refreshes are serialized: a snapshot is read from the database and applied under the same lock,
+so a snapshot read later is always applied later. Otherwise two commits of one recipe, or a reload
+and a commit, could apply their snapshots in the wrong order and leave the index stale.
+Searches only wait for the short apply step under the write lock.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IngredientRecipeIndex {
+
+    private final RecipeRepository recipeRepository;
+    private final RecipeIngredientRepository recipeIngredientRepository;
+
+    private final Lock refreshLock = new ReentrantLock();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Long> ingredientIds = new HashMap<>();
+    private final Map<Long, RoaringBitmap> recipeIdsByIngredientId = new HashMap<>();
+    // Reverse of the bitmaps, a changed recipe only touches the bitmaps of its own ingredients
+    private final Map<Long, Set<Long>> ingredientIdsByRecipeId = new HashMap<>();
+    private final RoaringBitmap allRecipeIds = new RoaringBitmap();
+    private volatile boolean loaded;
+
+    // Reloaded after data files are loaded on demand, before the search result generation is bumped
+    @Order(0)
+    @EventListener({ApplicationReadyEvent.class, DataLoadedEvent.class})
+    public void load() {
+        refreshLock.lock();
+        try {
+            val recipeIds = recipeRepository.findAllRecipeIds();
+            val recipeIngredientEntries = recipeIngredientRepository.findAllEntries();
+
+            lock.writeLock().lock();
+            try {
+                ingredientIds.clear();
+                recipeIdsByIngredientId.clear();
+                ingredientIdsByRecipeId.clear();
+                allRecipeIds.clear();
+                recipeIds.forEach(recipeId -> allRecipeIds.add(toIndexValue(recipeId)));
+                recipeIngredientEntries.forEach(this::addEntry);
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            log.info("Ingredient index is loaded with {} recipes and {} ingredients",
+                    recipeIds.size(), ingredientIds.size());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // Without a transaction (e.g. deleteById of the repository) the event is handled immediately
+    // Updated before the search result generation is bumped
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(final RecipeChangedEvent recipeChangedEvent) {
+        val recipeIds = recipeChangedEvent.getRecipeIds();
+
+        refreshLock.lock();
+        try {
+            // Recipes which do not exist anymore have no entries
+            val recipeIngredientEntries = recipeIngredientRepository.findEntriesByRecipeIdIn(recipeIds);
+
+            lock.writeLock().lock();
+            try {
+                recipeIds.forEach(this::removeRecipe);
+                recipeIngredientEntries.forEach(recipeIngredientEntry -> {
+                    allRecipeIds.add(toIndexValue(recipeIngredientEntry.getRecipeId()));
+                    if (recipeIngredientEntry.getIngredientId() != null) {
+                        addEntry(recipeIngredientEntry);
+                    }
+                });
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /*
+    Returns the recipe ids in ascending order, or empty when the index is not loaded yet
+    or the expression has other predicates than ingredients, then the database has to run it.
+    */
+    public Optional<List<Long>> findRecipeIds(final FilterExpression filterExpression) {
+        if (!loaded || !isIngredientExpression(filterExpression)) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            val recipeIds = new ArrayList<Long>();
+            evaluate(filterExpression).forEach((int recipeId) -> recipeIds.add((long) recipeId));
+            return Optional.of(recipeIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap evaluate(final FilterExpression filterExpression) {
+        switch (filterExpression.getOperator()) {
+            case AND:
+                return FastAggregation.and(evaluateOperands(filterExpression).iterator());
+            case OR:
+                return FastAggregation.or(evaluateOperands(filterExpression).iterator());
+            case NOT:
+                return RoaringBitmap.andNot(allRecipeIds, evaluate(filterExpression.getOperands().get(0)));
+            case INCL_INGREDIENTS:
+                return recipeIdsOf(filterExpression.getFilterValues().getIngredients());
+            case EXCL_INGREDIENTS:
+                return RoaringBitmap.andNot(allRecipeIds,
+                        recipeIdsOf(filterExpression.getFilterValues().getIngredients()));
+            default:
+                throw new IllegalArgumentException(String.format(
+                        "Filter operator %s is not supported by the ingredient index",
+                        filterExpression.getOperator().getValue()));
+        }
+    }
+
+    private List<RoaringBitmap> evaluateOperands(final FilterExpression filterExpression) {
+        return filterExpression.getOperands()
+                .stream()
+                .map(this::evaluate)
+                .collect(Collectors.toList());
+    }
+
+    private RoaringBitmap recipeIdsOf(final Set<String> ingredientNames) {
+        val recipeIds = ingredientNames.stream()
+                .map(ingredientIds::get)
+                .filter(Objects::nonNull)
+                .map(recipeIdsByIngredientId::get)
+                .collect(Collectors.toList());
+        return recipeIds.isEmpty() ? new RoaringBitmap() : FastAggregation.or(recipeIds.iterator());
+    }
+
+    private void addEntry(final RecipeIngredientEntry recipeIngredientEntry) {
+        ingredientIds.put(recipeIngredientEntry.getIngredientName(), recipeIngredientEntry.getIngredientId());
+        recipeIdsByIngredientId
+                .computeIfAbsent(recipeIngredientEntry.getIngredientId(), ingredientId -> new RoaringBitmap())
+                .add(toIndexValue(recipeIngredientEntry.getRecipeId()));
+        ingredientIdsByRecipeId
+                .computeIfAbsent(recipeIngredientEntry.getRecipeId(), recipeId -> new HashSet<>())
+                .add(recipeIngredientEntry.getIngredientId());
+    }
+
+    private void removeRecipe(final Long recipeId) {
+        val indexValue = toIndexValue(recipeId);
+        Optional.ofNullable(ingredientIdsByRecipeId.remove(recipeId))
+                .ifPresent(recipeIngredientIds -> recipeIngredientIds.forEach(
+                        ingredientId -> recipeIdsByIngredientId.get(ingredientId).remove(indexValue)));
+        allRecipeIds.remove(indexValue);
+    }
+
+    private boolean isIngredientExpression(final FilterExpression filterExpression) {
+        val filterOperator = filterExpression.getOperator();
+        if (filterOperator.isLogical()) {
+            return filterExpression.getOperands().stream().allMatch(this::isIngredientExpression);
+        }
+        return filterOperator == FilterOperator.INCL_INGREDIENTS || filterOperator == FilterOperator.EXCL_INGREDIENTS;
+    }
+
+    private int toIndexValue(final Long recipeId) {
+        return Math.toIntExact(recipeId);
+    }
+}
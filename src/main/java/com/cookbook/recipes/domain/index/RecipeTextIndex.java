@@ -0,0 +1,229 @@
+package com.cookbook.recipes.domain.index;
+
+import com.cookbook.recipes.domain.events.DataLoadedEvent;
+import com.cookbook.recipes.domain.events.RecipeChangedEvent;
+import com.cookbook.recipes.mapper.utils.TokenizerHelper;
+import com.cookbook.recipes.model.FilterExpression;
+import com.cookbook.recipes.model.FilterOperator;
+import com.cookbook.recipes.model.RecipeText;
+import com.cookbook.recipes.repository.RecipeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/*
+Full-text inverted index over the name, description and instruction of recipes.
+Every term points to the recipes containing it, so a search only reads the postings of its own terms
+instead of scanning every instruction with LIKE '%text%'.
+
+A recipe matches when it contains all terms of the query, the last term also matches as a prefix
+("bak" finds "bake"). An instruction without any term matches no recipe. Only a filter of a single
+instruction predicate is answered by the index, the database runs instruction predicates of other filters.
+Matches are ranked with BM25, where a term found in the name weighs more
+than one in the instruction and both more than one in the description.
+
+Refreshes read and apply their snapshot under one lock, see IngredientRecipeIndex.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecipeTextIndex {
+
+    private static final float NAME_BOOST = 3.0f;
+    private static final float INSTRUCTION_BOOST = 2.0f;
+    private static final float DESCRIPTION_BOOST = 1.0f;
+    // Usual BM25 parameters: term frequency saturation and document length normalization
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final RecipeRepository recipeRepository;
+
+    private final Lock refreshLock = new ReentrantLock();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Sorted by term to look up the postings of a prefix
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> recipeTerms = new HashMap<>();
+    private final Map<Long, Float> recipeLengths = new HashMap<>();
+    private double totalLength;
+    private volatile boolean loaded;
+
+    // Reloaded after data files are loaded on demand, before the search result generation is bumped
+    @Order(0)
+    @EventListener({ApplicationReadyEvent.class, DataLoadedEvent.class})
+    public void load() {
+        refreshLock.lock();
+        try {
+            val recipeTexts = recipeRepository.findAllRecipeTexts();
+
+            lock.writeLock().lock();
+            try {
+                postings.clear();
+                recipeTerms.clear();
+                recipeLengths.clear();
+                totalLength = 0;
+                recipeTexts.forEach(this::addRecipe);
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            log.info("Text index is loaded with {} recipes and {} terms", recipeTexts.size(), postings.size());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // Updated before the search result generation is bumped
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(final RecipeChangedEvent recipeChangedEvent) {
+        refreshLock.lock();
+        try {
+            val recipeTexts = recipeRepository.findRecipeTextsByIdIn(recipeChangedEvent.getRecipeIds());
+
+            lock.writeLock().lock();
+            try {
+                recipeChangedEvent.getRecipeIds().forEach(this::removeRecipe);
+                recipeTexts.forEach(this::addRecipe);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /*
+    Returns the ids of the matching recipes, the most relevant first. Empty when the index is not loaded yet
+    or the expression is not a single instruction predicate, then the database has to run it.
+    */
+    public Optional<List<Long>> search(final FilterExpression filterExpression) {
+        if (!loaded || filterExpression.getOperator() != FilterOperator.INSTRUCTION) {
+            return Optional.empty();
+        }
+
+        val queryTerms = queryTerms(filterExpression.getFilterValues().getInstruction());
+        if (queryTerms.isEmpty()) {
+            return Optional.of(List.of());
+        }
+
+        lock.readLock().lock();
+        try {
+            return Optional.of(rank(queryTerms));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> rank(final List<String> queryTerms) {
+        val recipeCount = recipeLengths.size();
+        val averageLength = totalLength / recipeCount;
+        Map<Long, Double> scores = null;
+
+        for (int index = 0; index < queryTerms.size(); index++) {
+            val termPostings = termPostings(queryTerms, index);
+            val idf = Math.log(1 + (recipeCount - termPostings.size() + 0.5) / (termPostings.size() + 0.5));
+
+            val termScores = new HashMap<Long, Double>();
+            termPostings.forEach((recipeId, termFrequency) -> {
+                val lengthNorm = 1 - B + B * recipeLengths.get(recipeId) / averageLength;
+                termScores.put(recipeId, idf * termFrequency * (K1 + 1) / (termFrequency + K1 * lengthNorm));
+            });
+
+            // Every term has to match, so only recipes scored by all previous terms are kept
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((recipeId, score) -> score + termScores.get(recipeId));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        return scores.entrySet()
+                .stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    // The last term of a query also matches as a prefix
+    private Map<Long, Float> termPostings(final List<String> queryTerms, final int index) {
+        return index == queryTerms.size() - 1
+                ? prefixPostings(queryTerms.get(index))
+                : postings.getOrDefault(queryTerms.get(index), Map.of());
+    }
+
+    private Map<Long, Float> prefixPostings(final String prefix) {
+        val prefixPostings = new HashMap<Long, Float>();
+        postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false)
+                .values()
+                .forEach(termPostings -> termPostings.forEach(
+                        (recipeId, termFrequency) -> prefixPostings.merge(recipeId, termFrequency, Float::sum)));
+        return prefixPostings;
+    }
+
+    private static List<String> queryTerms(final String instruction) {
+        return new ArrayList<>(new LinkedHashSet<>(TokenizerHelper.tokenize(instruction)));
+    }
+
+    private void addRecipe(final RecipeText recipeText) {
+        val recipeId = recipeText.getRecipeId();
+        val termFrequencies = new HashMap<String, Float>();
+        val length = addTerms(termFrequencies, recipeText.getName(), NAME_BOOST)
+                + addTerms(termFrequencies, recipeText.getInstruction(), INSTRUCTION_BOOST)
+                + addTerms(termFrequencies, recipeText.getDescription(), DESCRIPTION_BOOST);
+
+        termFrequencies.forEach((term, termFrequency) ->
+                postings.computeIfAbsent(term, key -> new HashMap<>()).put(recipeId, termFrequency));
+        recipeTerms.put(recipeId, termFrequencies.keySet());
+        recipeLengths.put(recipeId, length);
+        totalLength += length;
+    }
+
+    private float addTerms(final Map<String, Float> termFrequencies, final String text, final float boost) {
+        val terms = TokenizerHelper.tokenize(text);
+        terms.forEach(term -> termFrequencies.merge(term, boost, Float::sum));
+        return terms.size() * boost;
+    }
+
+    private void removeRecipe(final Long recipeId) {
+        val terms = recipeTerms.remove(recipeId);
+        if (terms == null) {
+            return;
+        }
+
+        terms.forEach(term -> {
+            val termPostings = postings.get(term);
+            termPostings.remove(recipeId);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        });
+        totalLength -= recipeLengths.remove(recipeId);
+    }
+}
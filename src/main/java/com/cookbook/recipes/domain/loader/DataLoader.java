@@ -0,0 +1,198 @@
+package com.cookbook.recipes.domain.loader;
+
+import com.cookbook.recipes.config.DataLoaderProperties;
+import com.cookbook.recipes.config.DataLoaderProperties.DataFile;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/*
+Loads NDJSON data files (one JSON object per line) into their tables with plain JDBC.
+
+A file is read with a pull parser, so only the current line is held in memory whatever the size of the file.
+Rows are inserted by a prepared statement in batches of recipes.data-loader.batch-size and committed
+every recipes.data-loader.commit-interval rows, so the undo log of the database stays small.
+When a file fails, the rows committed before are kept and the error names the line which failed.
+A row is only inserted when no row of its id exists, so loading the same files again inserts nothing
+and rows changed by the application are kept.
+
+Runs at startup when recipes.data-loader.enabled is set, before the indexes are loaded,
+or on demand through the dataloader actuator endpoint.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DataLoader implements ApplicationRunner {
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final DataSource dataSource;
+    private final DataLoaderProperties dataLoaderProperties;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Override
+    public void run(final ApplicationArguments applicationArguments) {
+        if (dataLoaderProperties.isEnabled()) {
+            load();
+        }
+    }
+
+    // Loads are serialized, files loaded concurrently could not be ordered by their references
+    public synchronized List<LoadReport> load() {
+        return dataLoaderProperties.getFiles()
+                .stream()
+                .map(this::load)
+                .collect(Collectors.toList());
+    }
+
+    private LoadReport load(final DataFile dataFile) {
+        val columns = dataFile.getColumns();
+        val columnList = String.join(", ", columns);
+        val insert = String.format("MERGE INTO %s target USING (VALUES (%s)) AS source (%s) ON target.id = source.id "
+                        + "WHEN NOT MATCHED THEN INSERT (%s) VALUES (%s)",
+                dataFile.getTable(), columns.stream().map(column -> "?").collect(Collectors.joining(", ")), columnList,
+                columnList, columns.stream().map(column -> "source." + column).collect(Collectors.joining(", ")));
+        val columnIndexes = new HashMap<String, Integer>();
+        for (int index = 0; index < columns.size(); index++) {
+            columnIndexes.put(columns.get(index), index);
+        }
+
+        log.info("Loading {} into {}", dataFile.getLocation().getDescription(), dataFile.getTable());
+        val start = System.nanoTime();
+        long rows = 0;
+        long insertedRows = 0;
+
+        try (val connection = dataSource.getConnection();
+             val parser = jsonFactory.createParser(dataFile.getLocation().getInputStream())) {
+            connection.setAutoCommit(false);
+            try (val statement = connection.prepareStatement(insert)) {
+                val values = new Object[columns.size()];
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    readRow(parser, columnIndexes, values);
+                    for (int index = 0; index < values.length; index++) {
+                        statement.setObject(index + 1, values[index]);
+                    }
+                    statement.addBatch();
+                    rows++;
+
+                    if (rows % dataLoaderProperties.getBatchSize() == 0) {
+                        insertedRows += insertedRows(statement.executeBatch());
+                    }
+                    if (rows % dataLoaderProperties.getCommitInterval() == 0) {
+                        connection.commit();
+                    }
+                    if (rows % dataLoaderProperties.getProgressInterval() == 0) {
+                        log.info("{} rows loaded into {}, {} rows/s", rows, dataFile.getTable(),
+                                rowsPerSecond(rows, System.nanoTime() - start));
+                    }
+                }
+                insertedRows += insertedRows(statement.executeBatch());
+            }
+            restartSequence(connection, dataFile);
+            connection.commit();
+        } catch (IOException | SQLException | RuntimeException exception) {
+            throw new IllegalStateException(String.format("%s could not be loaded into %s at line %d",
+                    dataFile.getLocation().getDescription(), dataFile.getTable(), rows + 1), exception);
+        }
+
+        val elapsedNanos = System.nanoTime() - start;
+        val loadReport = new LoadReport(dataFile.getTable(), rows, insertedRows, elapsedNanos / NANOS_PER_MILLI,
+                rowsPerSecond(rows, elapsedNanos));
+        log.info("{} rows loaded into {} in {} ms, {} rows/s, {} of them inserted", loadReport.getRows(),
+                loadReport.getTable(), loadReport.getMillis(), loadReport.getRowsPerSecond(),
+                loadReport.getInsertedRows());
+        return loadReport;
+    }
+
+    private void readRow(final JsonParser parser, final Map<String, Integer> columnIndexes, final Object[] values)
+            throws IOException {
+        Arrays.fill(values, null);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            val columnIndex = columnIndexes.get(parser.getCurrentName());
+            val token = parser.nextToken();
+            if (columnIndex == null) {
+                parser.skipChildren();
+                continue;
+            }
+            values[columnIndex] = valueOf(parser, token);
+        }
+    }
+
+    private Object valueOf(final JsonParser parser, final JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return parser.getBooleanValue();
+            case VALUE_NULL:
+                return null;
+            default:
+                throw new IllegalArgumentException(
+                        String.format("Field %s requires a scalar value", parser.getCurrentName()));
+        }
+    }
+
+    private void restartSequence(final Connection connection, final DataFile dataFile) throws SQLException {
+        if (dataFile.getSequence() == null) {
+            return;
+        }
+
+        try (val statement = connection.createStatement()) {
+            val nextId = queryLong(statement, String.format("SELECT COALESCE(MAX(id), 0) + 1 FROM %s",
+                    dataFile.getTable()));
+            // Values handed out already may be id blocks in use by the application, so the sequence never goes back
+            val nextSequenceValue = queryLong(statement, String.format("SELECT NEXT VALUE FOR %s",
+                    dataFile.getSequence()));
+            if (nextId > nextSequenceValue) {
+                statement.execute(String.format("ALTER SEQUENCE %s RESTART WITH %d", dataFile.getSequence(), nextId));
+            }
+        }
+    }
+
+    private long queryLong(final Statement statement, final String query) throws SQLException {
+        try (val resultSet = statement.executeQuery(query)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    // Rows of existing ids are counted as 0
+    private static long insertedRows(final int[] updateCounts) {
+        return Arrays.stream(updateCounts).filter(updateCount -> updateCount > 0).sum();
+    }
+
+    private static long rowsPerSecond(final long rows, final long elapsedNanos) {
+        return elapsedNanos == 0 ? rows : rows * 1_000 * NANOS_PER_MILLI / elapsedNanos;
+    }
+
+    @Value
+    public static class LoadReport {
+
+        String table;
+        long rows;
+        long insertedRows;
+        long millis;
+        long rowsPerSecond;
+    }
+}
@@ -0,0 +1,34 @@
+package com.cookbook.recipes.domain.loader;
+
+import com.cookbook.recipes.domain.events.DataLoadedEvent;
+import com.cookbook.recipes.domain.loader.DataLoader.LoadReport;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/*
+POST /actuator/dataloader loads the configured data files into the running application,
+e.g. after restoring a catalogue into an empty environment. Rows of ids which exist already are skipped,
+so a repeated load inserts nothing. Not exposed in prod, where it would be an unauthenticated bulk write.
+ */
+@Component
+@Endpoint(id = "dataloader")
+@RequiredArgsConstructor
+public class DataLoaderEndpoint {
+
+    private final DataLoader dataLoader;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @WriteOperation
+    public List<LoadReport> load() {
+        val loadReports = dataLoader.load();
+        applicationEventPublisher.publishEvent(
+                new DataLoadedEvent(loadReports.stream().mapToLong(LoadReport::getInsertedRows).sum()));
+        return loadReports;
+    }
+}
@@ -0,0 +1,61 @@
+package com.cookbook.recipes.domain.metrics;
+
+import lombok.Value;
+import lombok.val;
+import lombok.experimental.UtilityClass;
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+
+/*
+Counts the SQL statements prepared and the entities loaded by Hibernate on the current thread.
+
+The statistics of the session factory add up all threads, so they can not be attributed to a call.
+A call runs on a single thread, the difference of two snapshots taken on that thread is its share,
+see RecipeServiceMetrics. Both hooks are registered by MetricsConfig.
+ */
+@UtilityClass
+public class QueryStatistics {
+
+    private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[2]);
+    private static final int STATEMENTS = 0;
+    private static final int ENTITIES_LOADED = 1;
+
+    public Snapshot snapshot() {
+        val counts = COUNTS.get();
+        return new Snapshot(counts[STATEMENTS], counts[ENTITIES_LOADED]);
+    }
+
+    @Value
+    public static class Snapshot {
+
+        long statements;
+        long entitiesLoaded;
+
+        public Snapshot since(final Snapshot start) {
+            return new Snapshot(statements - start.statements, entitiesLoaded - start.entitiesLoaded);
+        }
+    }
+
+    // A batch is prepared once, so its statements count as one
+    public static class CountingStatementInspector implements StatementInspector {
+
+        @Override
+        public String inspect(final String sql) {
+            COUNTS.get()[STATEMENTS]++;
+            return sql;
+        }
+    }
+
+    public static class CountingInterceptor extends EmptyInterceptor {
+
+        @Override
+        public boolean onLoad(final Object entity, final Serializable id, final Object[] state,
+                              final String[] propertyNames, final Type[] types) {
+            COUNTS.get()[ENTITIES_LOADED]++;
+            return false;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.cookbook.recipes.domain.metrics;
+
+import com.cookbook.recipes.model.GeneratedRecipe;
+import com.cookbook.recipes.model.GeneratedRecipes;
+import com.cookbook.recipes.model.GeneratedSearchFilter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Optional;
+
+/*
+Records every operation of RecipeService, tagged by operation and by the filter criteria of a search:
+
+recipes.operation              time of a call, with percentile histograms and the exception thrown if any
+recipes.operation.results      recipes returned
+recipes.operation.statements   SQL statements prepared
+recipes.operation.entities     entities loaded
+
+The aspect runs outside the transaction and cache proxies, so the commit (and the statements it flushes)
+is part of a call and a cache hit is recorded with no statements. Searches by a filter_expression are tagged
+criteria=expression, the shape of an expression would be unbounded, other calls criteria=none.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class RecipeServiceMetrics {
+
+    public static final String OPERATION_TIMER = "recipes.operation";
+    public static final String RESULTS_SUMMARY = "recipes.operation.results";
+    public static final String STATEMENTS_SUMMARY = "recipes.operation.statements";
+    public static final String ENTITIES_SUMMARY = "recipes.operation.entities";
+    public static final String OPERATION_TAG = "operation";
+    public static final String CRITERIA_TAG = "criteria";
+    public static final String EXCEPTION_TAG = "exception";
+
+    private static final String EXPRESSION_CRITERIA = "expression";
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.cookbook.recipes.domain.services.RecipeService.*(..))")
+    public Object record(final ProceedingJoinPoint joinPoint) throws Throwable {
+        val tags = Tags.of(OPERATION_TAG, joinPoint.getSignature().getName(),
+                CRITERIA_TAG, getCriteria(joinPoint.getArgs()));
+        val start = QueryStatistics.snapshot();
+        val sample = Timer.start(meterRegistry);
+        String exception = NONE;
+        try {
+            val result = joinPoint.proceed();
+            getResults(result).ifPresent(results -> summary(RESULTS_SUMMARY, tags).record(results));
+            return result;
+        } catch (Throwable throwable) {
+            exception = throwable.getClass().getSimpleName();
+            throw throwable;
+        } finally {
+            sample.stop(Timer.builder(OPERATION_TIMER)
+                    .tags(tags)
+                    .tag(EXCEPTION_TAG, exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            val queryStatistics = QueryStatistics.snapshot().since(start);
+            summary(STATEMENTS_SUMMARY, tags).record(queryStatistics.getStatements());
+            summary(ENTITIES_SUMMARY, tags).record(queryStatistics.getEntitiesLoaded());
+        }
+    }
+
+    private DistributionSummary summary(final String name, final Tags tags) {
+        return DistributionSummary.builder(name)
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    private static String getCriteria(final Object[] args) {
+        return Arrays.stream(args)
+                .filter(GeneratedSearchFilter.class::isInstance)
+                .map(GeneratedSearchFilter.class::cast)
+                .findFirst()
+                .map(generatedSearchFilter -> generatedSearchFilter.getFilterExpression() != null
+                        ? EXPRESSION_CRITERIA
+                        : Optional.ofNullable(generatedSearchFilter.getFilterCriteria())
+                        .map(Objects::toString)
+                        .orElse(NONE))
+                .orElse(NONE);
+    }
+
+    private static Optional<Integer> getResults(final Object result) {
+        if (result instanceof Collection) {
+            return Optional.of(((Collection<?>) result).size());
+        }
+        if (result instanceof GeneratedRecipes) {
+            return Optional.ofNullable(((GeneratedRecipes) result).getGeneratedRecipes()).map(Collection::size);
+        }
+        if (result instanceof GeneratedRecipe) {
+            return Optional.of(1);
+        }
+        return Optional.empty();
+    }
+}
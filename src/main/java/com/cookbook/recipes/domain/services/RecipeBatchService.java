@@ -0,0 +1,226 @@
+package com.cookbook.recipes.domain.services;
+
+import com.cookbook.recipes.domain.events.RecipeChangedEvent;
+import com.cookbook.recipes.domain.index.IngredientDictionary;
+import com.cookbook.recipes.mapper.RecipeMapper;
+import com.cookbook.recipes.model.GeneratedRecipe;
+import com.cookbook.recipes.model.GeneratedRecipeBatchResult;
+import com.cookbook.recipes.model.GeneratedRecipeBatchResults;
+import com.cookbook.recipes.model.GeneratedRecipeIngredient;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/*
+Creates many recipes in one request, e.g. for importers.
+
+Recipes are created in chunks, every chunk is one transaction with batched inserts,
+and the ingredients of a whole chunk are resolved at once. One event announces all recipes
+of a chunk, so the indexes reload them with one query each. When a chunk fails,
+its recipes are created one by one, so only the failing recipes are reported as failed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecipeBatchService {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final String RECIPE_NAME_IS_MISSING = "Recipe requires a name";
+    private static final String INGREDIENT_NAME_IS_MISSING = "Recipe ingredient requires an ingredient name";
+
+    private final RecipeMapper recipeMapper;
+    private final IngredientDictionary ingredientDictionary;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    public GeneratedRecipeBatchResults createRecipes(final List<GeneratedRecipe> generatedRecipes) {
+        return createRecipes(generatedRecipes.iterator());
+    }
+
+    // One recipe per line, recipes are read while earlier chunks are already inserted
+    public GeneratedRecipeBatchResults importRecipes(final InputStream inputStream) throws IOException {
+        try (val generatedRecipes = objectMapper.readerFor(GeneratedRecipe.class)
+                .<GeneratedRecipe>readValues(inputStream)) {
+            return createRecipes(generatedRecipes);
+        }
+    }
+
+    private GeneratedRecipeBatchResults createRecipes(final Iterator<GeneratedRecipe> generatedRecipes) {
+        val results = new ArrayList<GeneratedRecipeBatchResult>();
+        val chunk = new ArrayList<BatchItem>(CHUNK_SIZE);
+        GeneratedRecipeBatchResult readFailure = null;
+
+        for (int index = 0; ; index++) {
+            try {
+                if (!generatedRecipes.hasNext()) {
+                    break;
+                }
+                chunk.add(new BatchItem(index, generatedRecipes.next()));
+            } catch (RuntimeException exception) {
+                // The parser cannot continue after a malformed recipe, so the rest of the request is not read
+                readFailure = failed(index, String.format("Recipe could not be read: %s", readError(exception)));
+                break;
+            }
+
+            if (chunk.size() == CHUNK_SIZE) {
+                results.addAll(createChunk(chunk));
+                chunk.clear();
+            }
+        }
+        results.addAll(createChunk(chunk));
+        if (readFailure != null) {
+            results.add(readFailure);
+        }
+
+        val created = (int) results.stream().filter(result -> result.getRecipeId() != null).count();
+        log.info("Batch of {} recipes is processed, {} created", results.size(), created);
+
+        return GeneratedRecipeBatchResults.builder()
+                .created(created)
+                .failed(results.size() - created)
+                .results(results)
+                .build();
+    }
+
+    private List<GeneratedRecipeBatchResult> createChunk(final List<BatchItem> chunk) {
+        if (chunk.isEmpty()) {
+            return List.of();
+        }
+
+        try {
+            return inTransaction(chunk);
+        } catch (RuntimeException exception) {
+            log.warn("Chunk of {} recipes failed, its recipes are created one by one", chunk.size(), exception);
+        }
+
+        return chunk.stream()
+                .map(batchItem -> {
+                    try {
+                        return inTransaction(List.of(batchItem)).get(0);
+                    } catch (RuntimeException exception) {
+                        return failed(batchItem.getIndex(), errorMessage(exception));
+                    }
+                })
+                .collect(Collectors.toList());
+    }
+
+    private List<GeneratedRecipeBatchResult> inTransaction(final List<BatchItem> batchItems) {
+        val failedResults = new ArrayList<GeneratedRecipeBatchResult>();
+        val validBatchItems = new ArrayList<BatchItem>(batchItems.size());
+        batchItems.forEach(batchItem -> {
+            try {
+                validate(batchItem.getGeneratedRecipe());
+                validBatchItems.add(batchItem);
+            } catch (IllegalArgumentException exception) {
+                failedResults.add(failed(batchItem.getIndex(), exception.getMessage()));
+            }
+        });
+
+        // The ingredients of all recipes are resolved at once, missing ones are inserted before the transaction
+        val ingredientNames = validBatchItems.stream()
+                .flatMap(batchItem -> recipeIngredientsOf(batchItem.getGeneratedRecipe()).stream())
+                .map(generatedRecipeIngredient -> generatedRecipeIngredient.getIngredient().getName())
+                .collect(Collectors.toSet());
+        ingredientDictionary.insertMissing(ingredientNames);
+
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            val results = new ArrayList<GeneratedRecipeBatchResult>(failedResults);
+            val recipeIds = new ArrayList<Long>(validBatchItems.size());
+            val ingredients = ingredientDictionary.resolve(ingredientNames);
+
+            validBatchItems.forEach(batchItem -> {
+                val recipe = recipeMapper.toRecipe(batchItem.getGeneratedRecipe());
+                // Ids are always generated, ids of the request are ignored
+                recipe.setId(null);
+                entityManager.persist(recipe);
+
+                recipeIngredientsOf(batchItem.getGeneratedRecipe()).forEach(generatedRecipeIngredient -> {
+                    val recipeIngredient = recipeMapper.mapRecipeIngredient(generatedRecipeIngredient);
+                    recipeIngredient.setId(null);
+                    recipeIngredient.setIngredient(
+                            ingredients.get(generatedRecipeIngredient.getIngredient().getName()));
+                    recipeIngredient.setRecipe(recipe);
+                    entityManager.persist(recipeIngredient);
+                });
+
+                results.add(GeneratedRecipeBatchResult.builder()
+                        .index(batchItem.getIndex())
+                        .recipeId(recipe.getId())
+                        .build());
+                recipeIds.add(recipe.getId());
+            });
+            if (!recipeIds.isEmpty()) {
+                applicationEventPublisher.publishEvent(new RecipeChangedEvent(recipeIds));
+            }
+
+            // Inserted recipes are not needed anymore, so the persistence context does not grow with the request
+            entityManager.flush();
+            entityManager.clear();
+
+            results.sort(Comparator.comparing(GeneratedRecipeBatchResult::getIndex));
+            return results;
+        });
+    }
+
+    private void validate(final GeneratedRecipe generatedRecipe) {
+        if (generatedRecipe.getName() == null || generatedRecipe.getName().isBlank()) {
+            throw new IllegalArgumentException(RECIPE_NAME_IS_MISSING);
+        }
+        val ingredientNamesAreValid = recipeIngredientsOf(generatedRecipe)
+                .stream()
+                .allMatch(recipeIngredient -> recipeIngredient.getIngredient() != null
+                        && recipeIngredient.getIngredient().getName() != null
+                        && !recipeIngredient.getIngredient().getName().isBlank());
+        if (!ingredientNamesAreValid) {
+            throw new IllegalArgumentException(INGREDIENT_NAME_IS_MISSING);
+        }
+    }
+
+    private Set<GeneratedRecipeIngredient> recipeIngredientsOf(final GeneratedRecipe generatedRecipe) {
+        return Objects.requireNonNullElse(generatedRecipe.getRecipeIngredients(), Set.of());
+    }
+
+    private String errorMessage(final RuntimeException exception) {
+        return String.format("Recipe could not be created: %s", NestedExceptionUtils.getMostSpecificCause(exception)
+                .getMessage());
+    }
+
+    private String readError(final RuntimeException exception) {
+        val cause = NestedExceptionUtils.getMostSpecificCause(exception);
+        return cause instanceof JsonProcessingException
+                ? ((JsonProcessingException) cause).getOriginalMessage()
+                : cause.getMessage();
+    }
+
+    private static GeneratedRecipeBatchResult failed(final int index, final String error) {
+        return GeneratedRecipeBatchResult.builder().index(index).error(error).build();
+    }
+
+    @Value
+    private static class BatchItem {
+
+        int index;
+        GeneratedRecipe generatedRecipe;
+    }
+}
@@ -1,30 +1,55 @@
 package com.cookbook.recipes.domain.services;
 
+import com.cookbook.recipes.domain.cache.RecipeCache;
+import com.cookbook.recipes.domain.cache.RecipeChangeCounter;
+import com.cookbook.recipes.domain.cache.SearchResultCache;
+import com.cookbook.recipes.domain.events.RecipeChangedEvent;
 import com.cookbook.recipes.domain.exception.ExceptionHandler;
+import com.cookbook.recipes.domain.index.IngredientDictionary;
+import com.cookbook.recipes.domain.index.IngredientRecipeIndex;
+import com.cookbook.recipes.domain.index.RecipeTextIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.cookbook.recipes.mapper.RecipeMapper;
 import com.cookbook.recipes.mapper.SearchFilterMapper;
+import com.cookbook.recipes.mapper.utils.CursorHelper;
+import com.cookbook.recipes.mapper.utils.ETagHelper;
+import com.cookbook.recipes.mapper.utils.MergePatchHelper;
 import com.cookbook.recipes.model.*;
-import com.cookbook.recipes.repository.IngredientRepository;
 import com.cookbook.recipes.repository.RecipeIngredientRepository;
 import com.cookbook.recipes.repository.RecipeRepository;
+import com.cookbook.recipes.repository.spec.RecipeFilterCompiler;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-import static com.cookbook.recipes.repository.spec.IngredientSpecifications.ingredientNamesIn;
-import static com.cookbook.recipes.repository.spec.RecipeIngredientSpecifications.*;
-import static com.cookbook.recipes.repository.spec.RecipeSpecifications.*;
-import static org.springframework.data.jpa.domain.Specification.where;
-
 /*
 Generates a constructor with required arguments.
 Required arguments are final fields and fields with constraints such as @NonNull.
@@ -41,27 +66,104 @@ public class RecipeService {
 
     private final RecipeRepository recipeRepository;
     private final RecipeIngredientRepository recipeIngredientRepository;
-    private final IngredientRepository ingredientRepository;
     private final RecipeMapper recipeMapper;
     private final SearchFilterMapper searchFilterMapper;
+    private final RecipeFilterCompiler recipeFilterCompiler;
+    private final IngredientRecipeIndex ingredientRecipeIndex;
+    private final RecipeTextIndex recipeTextIndex;
+    private final IngredientDictionary ingredientDictionary;
+    private final RecipeCache recipeCache;
+    private final SearchResultCache searchResultCache;
+    private final RecipeChangeCounter recipeChangeCounter;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
 
     private static final String RECIPE_DOES_NOT_EXIST = "Recipe with id: %s does not exist";
+    private static final String RECIPE_HAS_BEEN_CHANGED = "Recipe with id: %s has been changed, its ETag is %s";
     private static final String RECIPE_WITH_INGREDIENTS_NOT_FOUND = "Recipe with ingredients name %s was not found";
+    private static final String NDJSON_SEPARATOR = "\n";
+    private static final String RECIPE_INGREDIENTS_MEMBER = "recipeIngredients";
+    // Recipes of cached or indexed ids are fetched in chunks, as ReactiveRecipeRepository does
+    private static final int RECIPE_ID_CHUNK_SIZE = 100;
+
+    public GeneratedRecipes getAllRecipes(final String after, final Integer limit) {
+        val pageSize = CursorHelper.pageSize(limit);
+        val afterRecipeId = decodeCursor(after);
+
+        // One extra id tells whether there is a next page without a separate count query
+        val recipeIds = recipeRepository.findRecipeIdsAfter(afterRecipeId, Pageable.ofSize(pageSize + 1));
+        val hasNextPage = recipeIds.size() > pageSize;
+        val pageRecipeIds = hasNextPage ? recipeIds.subList(0, pageSize) : recipeIds;
+        val recipes = pageRecipeIds.isEmpty()
+                ? List.<Recipe>of()
+                : recipeRepository.findByIdInOrderByIdAsc(pageRecipeIds);
+
+        return GeneratedRecipes.builder()
+                .generatedRecipes(recipes.stream()
+                        .map(recipeMapper::toGeneratedRecipe)
+                        .collect(Collectors.toList()))
+                .nextCursor(hasNextPage ? CursorHelper.encode(pageRecipeIds.get(pageSize - 1)) : null)
+                .build();
+    }
 
-    public List<GeneratedRecipe> getAllRecipes() {
-        return recipeRepository.findAll()
-                .stream()
-                .map(recipeMapper::toGeneratedRecipe)
-                .collect(Collectors.toList());
+    // The recipe id after which a page starts, also used by the reactive read path
+    public Long decodeCursor(final String cursor) {
+        if (cursor == null) {
+            return CursorHelper.FIRST_PAGE_RECIPE_ID;
+        }
+        try {
+            return CursorHelper.decode(cursor);
+        } catch (IllegalArgumentException exception) {
+            throw ExceptionHandler.createBusinessServiceException(HttpStatus.BAD_REQUEST, exception.getMessage());
+        }
+    }
+
+    /*
+    Writes every recipe as one JSON line while rows are still being read, so heap usage does not
+    depend on the size of the catalogue. Recipes are detached as soon as they are written,
+    otherwise the persistence context would keep all of them until the end of the transaction.
+    */
+    @Transactional(readOnly = true)
+    public void exportRecipes(final OutputStream outputStream) throws IOException {
+        try (val recipes = recipeRepository.streamAllByOrderByIdAsc();
+             val sequenceWriter = objectMapper.writer()
+                     .withRootValueSeparator(NDJSON_SEPARATOR)
+                     .writeValues(outputStream)) {
+            val iterator = recipes.iterator();
+            while (iterator.hasNext()) {
+                val recipe = iterator.next();
+                sequenceWriter.write(recipeMapper.toGeneratedRecipe(recipe));
+                entityManager.detach(recipe);
+            }
+        }
     }
 
+    // Read-through cache, a missing recipe is not cached because the exception leaves the method
     public GeneratedRecipe getRecipeById(final Long recipeId) {
+        val cachedRecipe = recipeCache.get(recipeId);
+        if (cachedRecipe.isPresent()) {
+            return cachedRecipe.get();
+        }
+
+        val stamp = recipeCache.stamp(recipeId);
         val generateRecipe = recipeRepository.getRecipeById(recipeId).orElseThrow(
                 () -> ExceptionHandler.createBusinessServiceException(
                         HttpStatus.NOT_FOUND, String.format(RECIPE_DOES_NOT_EXIST, recipeId)
                 ));
 
-        return recipeMapper.toGeneratedRecipe(generateRecipe);
+        val generatedRecipe = recipeMapper.toGeneratedRecipe(generateRecipe);
+        recipeCache.put(recipeId, generatedRecipe, stamp);
+        return generatedRecipe;
+    }
+
+    public Optional<Long> getRecipeVersion(final Long recipeId) {
+        return recipeRepository.findVersionById(recipeId);
+    }
+
+    public String getRecipesETag() {
+        return recipeChangeCounter.eTag();
     }
 
     public String createRecipe(final GeneratedRecipe generatedRecipe) {
@@ -75,292 +177,349 @@ public class RecipeService {
         }
 
         val recipe = recipeMapper.toRecipe(generatedRecipe);
-        val ingredientNames = generatedRecipe.getRecipeIngredients()
-                .stream()
-                .map(recipeIngredient -> recipeIngredient.getIngredient().getName())
-                .collect(Collectors.toSet());
+        val ingredientNames = ingredientNamesOf(generatedRecipe.getRecipeIngredients());
 
-        val ingredientsDb = ingredientRepository.findAll(
-                where(ingredientNamesIn(ingredientNames)));
-        /*
-        Alternative method
-        val ingredientsDb = ingredientRepository.findAllByNameIn(ingredientNames);
-        */
+        val ingredientsDb = ingredientDictionary.resolve(ingredientNames);
 
         val recipeIngredients = generatedRecipe.getRecipeIngredients()
                 .stream()
                 .map(generatedRecipeIngredient -> {
                     val recipeIngredient = recipeMapper.mapRecipeIngredient(generatedRecipeIngredient);
-                    val ingredientDb = ingredientFilter(ingredientsDb, recipeIngredient.getIngredient());
-                    ingredientDb.ifPresent(recipeIngredient::setIngredient);
+                    recipeIngredient.setIngredient(ingredientsDb.get(recipeIngredient.getIngredient().getName()));
                     recipeIngredient.setRecipe(recipe);
                     return recipeIngredient;
                 })
                 .collect(Collectors.toList());
 
         val recipeId = recipeIngredientRepository.saveAll(recipeIngredients).get(0).getRecipe().getId();
+        applicationEventPublisher.publishEvent(new RecipeChangedEvent(recipeId));
 
         return recipeId.toString();
     }
 
-    @Transactional
-    public void updateRecipe(final Long recipeId, final GeneratedRecipe generatedRecipe) {
-        val recipeDb = recipeRepository.getRecipeById(recipeId);
+    /*
+    Writes of a recipe return its new version. With If-Match the write only succeeds when the recipe
+    still has the version of the ETag, a change committed between the check and the flush is detected
+    by the version condition of the UPDATE and also fails, see RestResponseExceptionHandler.
+
+    Missing ingredients are inserted before the transaction of a write starts, so a write never holds
+    more than one connection of the pool, see IngredientDictionary.
+    */
+    public Long updateRecipe(final Long recipeId, final GeneratedRecipe generatedRecipe, final String ifMatch) {
+        ingredientDictionary.insertMissing(ingredientNamesOf(generatedRecipe.getRecipeIngredients()));
+
+        return inTransaction(() -> {
+            // The stored ingredients are loaded with the recipe, see RECIPE_INGREDIENTS_GRAPH
+            val recipeDb = recipeRepository.getRecipeById(recipeId).orElseThrow(
+                    () -> ExceptionHandler.createBusinessServiceException(
+                            HttpStatus.BAD_REQUEST, String.format(RECIPE_DOES_NOT_EXIST, recipeId)));
+            checkVersion(recipeDb, ifMatch);
+
+            setRecipeFields(recipeDb, recipeMapper.toRecipe(generatedRecipe));
+            replaceRecipeIngredients(recipeDb, generatedRecipe.getRecipeIngredients());
+            applicationEventPublisher.publishEvent(new RecipeChangedEvent(recipeId));
+
+            return flushVersion(recipeDb);
+        });
+    }
 
-        if (recipeDb.isEmpty()) {
+    /*
+    Applies a JSON merge patch (RFC 7396) to a recipe.
+    The recipe ingredients are only loaded and reconciled when the patch contains them,
+    so a patch of single fields is flushed as one UPDATE of the recipe row.
+    */
+    public Long patchRecipe(final Long recipeId, final Object mergePatch, final String ifMatch) {
+        val patch = objectMapper.<JsonNode>valueToTree(mergePatch);
+        if (patch == null || !patch.isObject()) {
             throw ExceptionHandler.createBusinessServiceException(
-                    HttpStatus.BAD_REQUEST, String.format(RECIPE_DOES_NOT_EXIST, recipeId));
+                    HttpStatus.BAD_REQUEST, "Merge patch of a recipe must be a JSON object");
+        }
+        // A merge patch replaces an array as a whole, so the patched ingredients are the ones of the patch
+        if (patch.has(RECIPE_INGREDIENTS_MEMBER)) {
+            val patchedRecipeIngredients = toGeneratedRecipe(
+                    objectMapper.createObjectNode().set(RECIPE_INGREDIENTS_MEMBER, patch.get(RECIPE_INGREDIENTS_MEMBER)))
+                    .getRecipeIngredients();
+            ingredientDictionary.insertMissing(
+                    ingredientNamesOf(Objects.requireNonNullElse(patchedRecipeIngredients, Set.of())));
         }
 
-        val amountList = generatedRecipe.getRecipeIngredients()
-                .stream()
-                .map(GeneratedRecipeIngredient::getAmount)
-                .collect(Collectors.toSet());
-        val measures = generatedRecipe.getRecipeIngredients()
-                .stream()
-                .map(recipeIngredient -> recipeMapper.mapMeasure(recipeIngredient.getMeasure()))
-                .collect(Collectors.toSet());
-        val ingredientNames = generatedRecipe.getRecipeIngredients()
-                .stream()
-                .map(recipeIngredient -> recipeIngredient.getIngredient().getName())
-                .collect(Collectors.toSet());
-
-        val recipeIngredientsDb = recipeIngredientRepository.findAll(
-                where(recipeIsEqual(generatedRecipe.getRecipeId())
-                        .and(amountIn(amountList))
-                        .and(recipeIngredientIngredientNamesIn(ingredientNames))
-                        .and(measuresIn(measures))
-                ));
-        val ingredientsDb = ingredientRepository.findAll(
-                where(ingredientNamesIn(ingredientNames)));
-
-        val recipe = recipeMapper.toRecipe(generatedRecipe);
-        recipeDb.get().setName(recipe.getName());
-        recipeDb.get().setDescription(recipe.getDescription());
-        recipeDb.get().setImage(recipe.getImage());
-        recipeDb.get().setInstruction(recipe.getInstruction());
-        recipeDb.get().setCreatedAt(recipe.getCreatedAt());
-        recipeDb.get().setIsVegetarian(recipe.getIsVegetarian());
-        recipeDb.get().setNumberOfServings(recipe.getNumberOfServings());
-
-        val recipeIngredients =
-                generatedRecipe.getRecipeIngredients().stream()
-                        .map(generatedRecipeIngredient -> {
-                            val recipeIngredient = recipeMapper.mapRecipeIngredient(generatedRecipeIngredient);
-                            val ingredientDb = ingredientFilter(ingredientsDb, recipeIngredient.getIngredient());
-                            ingredientDb.ifPresent(recipeIngredient::setIngredient);
-                            recipeIngredient.setRecipe(recipeDb.get());
-                            return recipeIngredient;
-                        })
-                        .filter(recipeIngredient -> recipeIngredientFilter(recipeIngredientsDb, recipeIngredient))
-                        .collect(Collectors.toList());
-
-        recipeIngredientRepository.saveAll(recipeIngredients);
-
+        return inTransaction(() -> {
+            val recipeDb = recipeRepository.findById(recipeId).orElseThrow(
+                    () -> ExceptionHandler.createBusinessServiceException(
+                            HttpStatus.BAD_REQUEST, String.format(RECIPE_DOES_NOT_EXIST, recipeId)));
+            checkVersion(recipeDb, ifMatch);
+
+            val patchedRecipe = MergePatchHelper.apply(
+                    objectMapper.valueToTree(recipeMapper.toGeneratedRecipeWithoutIngredients(recipeDb)), patch);
+            val generatedRecipe = toGeneratedRecipe(patchedRecipe);
+            // A merge patch can remove any member, the name is required like in the body of a PUT
+            if (generatedRecipe.getName() == null || generatedRecipe.getName().isBlank()) {
+                throw ExceptionHandler.createBusinessServiceException(HttpStatus.BAD_REQUEST, "Recipe requires a name");
+            }
+            if (!recipeId.equals(generatedRecipe.getRecipeId())) {
+                throw ExceptionHandler.createBusinessServiceException(
+                        HttpStatus.BAD_REQUEST, "Recipe id can not be changed");
+            }
+
+            setRecipeFields(recipeDb, recipeMapper.toRecipe(generatedRecipe));
+            if (patch.has(RECIPE_INGREDIENTS_MEMBER)) {
+                replaceRecipeIngredients(recipeDb,
+                        Objects.requireNonNullElse(generatedRecipe.getRecipeIngredients(), Set.of()));
+            }
+            applicationEventPublisher.publishEvent(new RecipeChangedEvent(recipeId));
+
+            return flushVersion(recipeDb);
+        });
     }
 
-    public void deleteRecipe(final Long recipeId) {
-        val recipe = recipeRepository.getRecipeById(recipeId);
-
-        if (recipe.isEmpty()) {
-            throw ExceptionHandler.createBusinessServiceException(
-                    HttpStatus.FORBIDDEN, String.format(RECIPE_DOES_NOT_EXIST, recipeId));
-        }
+    // The checked recipe itself is deleted, so its DELETE has the version condition of If-Match
+    @Transactional
+    public void deleteRecipe(final Long recipeId, final String ifMatch) {
+        val recipe = recipeRepository.getRecipeById(recipeId).orElseThrow(
+                () -> ExceptionHandler.createBusinessServiceException(
+                        HttpStatus.FORBIDDEN, String.format(RECIPE_DOES_NOT_EXIST, recipeId)));
+        checkVersion(recipe, ifMatch);
 
-        recipeRepository.deleteById(recipeId);
+        recipeRepository.delete(recipe);
+        applicationEventPublisher.publishEvent(new RecipeChangedEvent(recipeId));
     }
 
     public List<GeneratedRecipe> postRecipesBySearchFilter(final GeneratedSearchFilter generatedSearchFilter) {
-        val searchFilter = searchFilterMapper.toSearchFilter(generatedSearchFilter);
-        val filterCriteria = searchFilter.getFilterCriteria();
-        val searchFilterValues = searchFilter.getFilterValues();
-
-        switch (filterCriteria) {
-            case INSTRUCTION:
-                return getRecipeByInstruction(searchFilterValues.getInstruction());
-            case IS_VEGETARIAN:
-                return getRecipesByIsVegetarian(searchFilterValues.getIsVegetarian());
-            case NUMBER_OF_SERVINGS:
-                return getRecipeByNumberOfServings(searchFilterValues.getNumberOfServings());
-            case NUMBER_OF_SERVINGS_GREATER_THAN_EQUAL:
-                return getRecipeByNumberOfServingsGreaterThan(searchFilterValues.getNumberOfServings());
-            case INCL_INGREDIENTS:
-                return getRecipeByIncludingIngredients(searchFilterValues.getIngredients());
-            case EXCL_INGREDIENTS:
-                return getRecipeByExcludingIngredients(searchFilterValues.getIngredients());
-            case IS_VEGETARIAN_AND_NUMBER_OF_SERVINGS:
-                return getRecipeByIsVegetarianAndNumberOfServings(
-                        searchFilterValues.getIsVegetarian(), searchFilterValues.getNumberOfServings());
-            case INGREDIENT_AND_NUMBER_OF_SERVINGS:
-                return getRecipeByIngredientAndNumberOfServings(
-                        searchFilterValues.getIngredients(), searchFilterValues.getNumberOfServings());
-            case EXCL_INGREDIENT_AND_INCL_INSTRUCTION:
-                return getRecipeByInstructionAndExcludedIngredient(
-                        searchFilterValues.getInstruction(), searchFilterValues.getIngredients());
-            case INSTRUCTION_AND_IS_VEGETARIAN_AND_NUMBER_OF_SERVINGS:
-                return getRecipeByInstructionAndIsVegetarianAndNumberOfServings(
-                        searchFilterValues.getInstruction(), searchFilterValues.getIsVegetarian(),
-                        searchFilterValues.getNumberOfServings());
-            case INGREDIENTS_AND_INSTRUCTION_AND_IS_VEGETARIAN_AND_NUMBER_OF_SERVINGS:
-                return getRecipeByIngredientsAndInstructionAndIsVegetarianAndNumberOfServings(
-                        searchFilterValues.getIngredients(),
-                        searchFilterValues.getInstruction(),
-                        searchFilterValues.getIsVegetarian(),
-                        searchFilterValues.getNumberOfServings());
-            default:
-                return List.of();
-        }
-    }
-
-    private List<GeneratedRecipe> getRecipeByInstruction(final String instruction) {
-        return recipeRepository.findByInstructionContainingIgnoreCase(instruction)
+        return search(searchFilterMapper.toSearchFilter(generatedSearchFilter),
+                this::findRecipesByIds, recipeRepository::findAll, Recipe::getId)
                 .stream()
                 .map(recipeMapper::toGeneratedRecipe)
                 .collect(Collectors.toList());
     }
 
-    private List<GeneratedRecipe> getRecipesByIsVegetarian(final Boolean isVegetarian) {
-        return recipeRepository.findByIsVegetarian(isVegetarian)
-                .stream()
-                .map(recipeMapper::toGeneratedRecipe)
-                .collect(Collectors.toList());
+    /*
+    Ids of the recipes matching a search filter, in the order of postRecipesBySearchFilter.
+    The reactive read path fetches the recipes of the ids itself, see ReactiveRecipeRepository.
+    */
+    public List<Long> findRecipeIdsBySearchFilter(final GeneratedSearchFilter generatedSearchFilter) {
+        return search(searchFilterMapper.toSearchFilter(generatedSearchFilter),
+                Function.identity(), recipeRepository::findRecipeIds, Function.identity());
     }
 
-    private List<GeneratedRecipe> getRecipeByNumberOfServings(final Integer numberOfServings) {
-        return recipeRepository.findByNumberOfServings(numberOfServings)
-                .stream()
-                .map(recipeMapper::toGeneratedRecipe)
-                .collect(Collectors.toList());
+    /*
+    An instruction search is ranked by the full-text index and ingredient only filters are resolved
+    by the ingredient index, every other filter is run by the database. Cached and indexed ids are
+    fetched by findByIds, a filter run by the database returns its results in one statement.
+    */
+    private <T> List<T> search(final SearchFilter searchFilter,
+                               final Function<List<Long>, List<T>> findByIds,
+                               final Function<Specification<Recipe>, List<T>> findBySpecification,
+                               final Function<T, Long> recipeIdOf) {
+        val filterExpression = toFilterExpression(searchFilter);
+
+        val specification = compileFilter(filterExpression);
+
+        // The key is taken before the filter is run, see SearchResultCache
+        val searchKey = searchResultCache.keyOf(filterExpression);
+        val results = searchResultCache.get(searchKey)
+                .map(findByIds)
+                .orElseGet(() -> {
+                    val matchingResults = recipeTextIndex.search(filterExpression)
+                            .or(() -> ingredientRecipeIndex.findRecipeIds(filterExpression))
+                            .map(findByIds)
+                            .orElseGet(() -> findBySpecification.apply(specification));
+                    searchResultCache.put(searchKey, matchingResults.stream()
+                            .map(recipeIdOf)
+                            .collect(Collectors.toList()));
+                    return matchingResults;
+                });
+
+        checkRecipesFound(searchFilter, results.isEmpty());
+        return results;
     }
 
-    private List<GeneratedRecipe> getRecipeByNumberOfServingsGreaterThan(final Integer numberOfServings) {
-        return recipeRepository.findByNumberOfServingsGreaterThanEqual(numberOfServings)
-                .stream()
-                .map(recipeMapper::toGeneratedRecipe)
-                .collect(Collectors.toList());
+    // Clients of the predefined INCL_INGREDIENTS filter rely on a not found response
+    private void checkRecipesFound(final SearchFilter searchFilter, final boolean noRecipesFound) {
+        if (noRecipesFound && searchFilter.getFilterExpression() == null
+                && searchFilter.getFilterCriteria() == FilterCriteria.INCL_INGREDIENTS) {
+            throw ExceptionHandler.createBusinessServiceException(
+                    HttpStatus.NOT_FOUND, String.format(RECIPE_WITH_INGREDIENTS_NOT_FOUND,
+                            searchFilter.getFilterValues().getIngredients()));
+        }
     }
 
-    private List<GeneratedRecipe> getRecipeByIncludingIngredients(final Set<String> ingredients) {
-        // Get unique recipe ids based on specific ingredients
-        val recipeIds = recipeRepository.findByRecipeIngredientsIngredientNameIn(ingredients)
-                .stream()
-                .map(Recipe::getId)
-                .collect(Collectors.toSet());
-
-        if (recipeIds.isEmpty()) {
+    private FilterExpression toFilterExpression(final SearchFilter searchFilter) {
+        if (searchFilter.getFilterExpression() != null) {
+            return searchFilter.getFilterExpression();
+        }
+        if (searchFilter.getFilterCriteria() == null) {
             throw ExceptionHandler.createBusinessServiceException(
-                    HttpStatus.NOT_FOUND, String.format(RECIPE_WITH_INGREDIENTS_NOT_FOUND, ingredients));
+                    HttpStatus.BAD_REQUEST, "Search filter requires filter_criteria or filter_expression");
         }
+        // Predefined criteria are aliases of a filter expression
+        return recipeFilterCompiler.fromFilterCriteria(searchFilter.getFilterCriteria(), searchFilter.getFilterValues());
+    }
 
-        return recipeRepository.findByIdIn(recipeIds)
-                .stream()
-                .map(recipeMapper::toGeneratedRecipe)
-                .collect(Collectors.toList());
+    // Recipes are returned in the order of the ids, e.g. ranked by relevance
+    private List<Recipe> findRecipesByIds(final List<Long> recipeIds) {
+        val recipes = new ArrayList<Recipe>(recipeIds.size());
+        for (int chunkStart = 0; chunkStart < recipeIds.size(); chunkStart += RECIPE_ID_CHUNK_SIZE) {
+            val chunk = recipeIds.subList(chunkStart, Math.min(chunkStart + RECIPE_ID_CHUNK_SIZE, recipeIds.size()));
+            val recipesById = recipeRepository.findByIdInOrderByIdAsc(chunk)
+                    .stream()
+                    .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+            chunk.stream()
+                    .map(recipesById::get)
+                    .filter(Objects::nonNull)
+                    .forEach(recipes::add);
+        }
+        return recipes;
     }
 
+    private Specification<Recipe> compileFilter(final FilterExpression filterExpression) {
+        try {
+            return recipeFilterCompiler.compile(filterExpression);
+        } catch (IllegalArgumentException exception) {
+            throw ExceptionHandler.createBusinessServiceException(HttpStatus.BAD_REQUEST, exception.getMessage());
+        }
+    }
 
-    private List<GeneratedRecipe> getRecipeByExcludingIngredients(final Set<String> ingredients) {
-        // Get unique recipe ids based on specific ingredients
-        val recipeIds = recipeRepository.findAll(where(ingredientsContains(ingredients)))
+    private Set<String> ingredientNamesOf(final Set<GeneratedRecipeIngredient> generatedRecipeIngredients) {
+        val ingredientNames = generatedRecipeIngredients
                 .stream()
-                .map(Recipe::getId)
+                .map(recipeIngredient -> recipeIngredient.getIngredient().getName())
                 .collect(Collectors.toSet());
 
-        if (recipeIds.isEmpty()) {
+        // Ingredients are identified by their unique name
+        if (ingredientNames.stream().anyMatch(ingredientName -> ingredientName == null || ingredientName.isBlank())) {
             throw ExceptionHandler.createBusinessServiceException(
-                    HttpStatus.NOT_FOUND, String.format(RECIPE_WITH_INGREDIENTS_NOT_FOUND, ingredients));
+                    HttpStatus.BAD_REQUEST, "Recipe ingredient requires an ingredient name");
         }
-
-        return recipeRepository.findAll(where(recipeIdsAreNot(recipeIds)))
-                .stream()
-                .map(recipeMapper::toGeneratedRecipe)
-                .collect(Collectors.toList());
+        return ingredientNames;
     }
 
-    private List<GeneratedRecipe> getRecipeByIsVegetarianAndNumberOfServings(final Boolean isVegetarian,
-                                                                             final Integer numberOfServings) {
-        return recipeRepository.findByIsVegetarianAndNumberOfServings(isVegetarian, numberOfServings)
-                .stream()
-                .map(recipeMapper::toGeneratedRecipe)
-                .collect(Collectors.toList());
+    private void checkVersion(final Recipe recipeDb, final String ifMatch) {
+        if (ifMatch != null && !ETagHelper.matches(ifMatch, recipeDb.getVersion())) {
+            throw ExceptionHandler.createBusinessServiceException(HttpStatus.PRECONDITION_FAILED,
+                    String.format(RECIPE_HAS_BEEN_CHANGED, recipeDb.getId(), ETagHelper.toETag(recipeDb.getVersion())));
+        }
     }
 
-    private List<GeneratedRecipe> getRecipeByIngredientAndNumberOfServings(final Set<String> ingredients,
-                                                                           final Integer numberOfServings) {
-        return recipeRepository.findByRecipeIngredientsIngredientNameInAndNumberOfServings(ingredients, numberOfServings)
-                .stream()
-                .map(recipeMapper::toGeneratedRecipe)
-                .collect(Collectors.toList());
+    // Hibernate increments the version of a changed recipe when it is flushed
+    private Long flushVersion(final Recipe recipeDb) {
+        entityManager.flush();
+        return recipeDb.getVersion();
     }
 
-    private List<GeneratedRecipe> getRecipeByInstructionAndExcludedIngredient(final String instruction,
-                                                                              final Set<String> ingredients) {
-        val recipeIds = recipeRepository.findAll(where(ingredientsContains(ingredients)))
-                .stream()
-                .map(Recipe::getId)
-                .collect(Collectors.toSet());
+    private void setRecipeFields(final Recipe recipeDb, final Recipe recipe) {
+        recipeDb.setName(recipe.getName());
+        recipeDb.setDescription(recipe.getDescription());
+        recipeDb.setImage(recipe.getImage());
+        recipeDb.setInstruction(recipe.getInstruction());
+        recipeDb.setCreatedAt(recipe.getCreatedAt());
+        recipeDb.setIsVegetarian(recipe.getIsVegetarian());
+        recipeDb.setNumberOfServings(recipe.getNumberOfServings());
+    }
 
-        if (recipeIds.isEmpty()) {
+    private GeneratedRecipe toGeneratedRecipe(final JsonNode recipe) {
+        try {
+            return objectMapper.treeToValue(recipe, GeneratedRecipe.class);
+        } catch (JsonProcessingException exception) {
             throw ExceptionHandler.createBusinessServiceException(
-                    HttpStatus.NOT_FOUND,
-                    String.format("Recipe with excluded ingredients \"%s\" and instruction \"%s\" was not found",
-                            ingredients, instruction));
+                    HttpStatus.BAD_REQUEST, exception.getOriginalMessage());
         }
+    }
 
-        return recipeRepository.findAll(where(recipeIdsAreNot(recipeIds)
-                        .and(instructionContainsIgnoreCase(instruction))))
-                .stream()
-                .map(recipeMapper::toGeneratedRecipe)
-                .collect(Collectors.toList());
+    private <T> T inTransaction(final Supplier<T> write) {
+        return new TransactionTemplate(transactionManager).execute(status -> write.get());
     }
 
-    private List<GeneratedRecipe> getRecipeByInstructionAndIsVegetarianAndNumberOfServings(
-            final String instruction, final Boolean isVegetarian, final Integer numberOfServings) {
-        return recipeRepository.findAll(where(instructionContainsIgnoreCase(instruction))
-                        .and(recipeIsVegetarian(isVegetarian))
-                        .and(numberOfServingsEqual(numberOfServings)))
+    private void replaceRecipeIngredients(final Recipe recipeDb,
+                                          final Set<GeneratedRecipeIngredient> generatedRecipeIngredients) {
+        val ingredientsDb = ingredientDictionary.resolve(ingredientNamesOf(generatedRecipeIngredients));
+
+        val recipeIngredients = generatedRecipeIngredients
                 .stream()
-                .map(recipeMapper::toGeneratedRecipe)
+                .map(generatedRecipeIngredient -> {
+                    val recipeIngredient = recipeMapper.mapRecipeIngredient(generatedRecipeIngredient);
+                    // Rows are matched by their content, ids of the request are ignored
+                    recipeIngredient.setId(null);
+                    recipeIngredient.setIngredient(ingredientsDb.get(recipeIngredient.getIngredient().getName()));
+                    recipeIngredient.setRecipe(recipeDb);
+                    return recipeIngredient;
+                })
                 .collect(Collectors.toList());
+
+        if (applyRecipeIngredients(recipeDb, recipeIngredients)) {
+            // Recipe ingredients are separate rows, so a change of them alone would not increment the version
+            entityManager.lock(recipeDb, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+        }
     }
 
-    private List<GeneratedRecipe> getRecipeByIngredientsAndInstructionAndIsVegetarianAndNumberOfServings(
-            final Set<String> ingredients, final String instruction,
-            final Boolean isVegetarian, final Integer numberOfServings) {
-        return recipeRepository.findAll(where(ingredientsContains(ingredients))
-                        .and(instructionContainsIgnoreCase(instruction))
-                        .and(recipeIsVegetarian(isVegetarian))
-                        .and(numberOfServingsEqual(numberOfServings)))
+    /*
+    Keyed diff of the stored and the requested ingredients of a recipe, each side is visited once.
+    A stored row with the same ingredient, amount and measure is kept, a stored row of the same ingredient
+    with another amount or measure is updated in place, the remaining requested ingredients are inserted
+    and the remaining stored rows are deleted. Hibernate sends the changes as batched statements at flush.
+    */
+    private boolean applyRecipeIngredients(final Recipe recipeDb, final List<RecipeIngredient> recipeIngredients) {
+        val storedRecipeIngredients = recipeDb.getRecipeIngredients();
+        val storedByKey = storedRecipeIngredients.stream()
+                .collect(Collectors.groupingBy(RecipeIngredientKey::of, Collectors.toCollection(ArrayDeque::new)));
+
+        val changedRecipeIngredients = recipeIngredients.stream()
+                .filter(recipeIngredient -> Optional.ofNullable(
+                                storedByKey.get(RecipeIngredientKey.of(recipeIngredient)))
+                        .map(Deque::poll)
+                        .isEmpty())
+                .collect(Collectors.toList());
+
+        // Ids are compared, so the ingredient references are not initialized
+        val unmatchedByIngredientId = storedByKey.values()
                 .stream()
-                .map(recipeMapper::toGeneratedRecipe)
-                .distinct() // remove duplications
+                .flatMap(Collection::stream)
+                .collect(Collectors.groupingBy(recipeIngredient -> recipeIngredient.getIngredient().getId(),
+                        Collectors.toCollection(ArrayDeque::new)));
+
+        val insertedRecipeIngredients = new ArrayList<RecipeIngredient>();
+        val updatedRecipeIngredients = new ArrayList<RecipeIngredient>();
+        changedRecipeIngredients.forEach(recipeIngredient -> {
+            val storedRecipeIngredient = Optional.ofNullable(
+                            unmatchedByIngredientId.get(recipeIngredient.getIngredient().getId()))
+                    .map(Deque::poll);
+            if (storedRecipeIngredient.isPresent()) {
+                storedRecipeIngredient.get().setAmount(recipeIngredient.getAmount());
+                storedRecipeIngredient.get().setMeasure(recipeIngredient.getMeasure());
+                updatedRecipeIngredients.add(storedRecipeIngredient.get());
+            } else {
+                insertedRecipeIngredients.add(recipeIngredient);
+            }
+        });
+
+        val deletedRecipeIngredients = unmatchedByIngredientId.values()
+                .stream()
+                .flatMap(Collection::stream)
                 .collect(Collectors.toList());
-    }
 
+        // Removed from the recipe first, otherwise its cascade would persist the deleted rows again
+        deletedRecipeIngredients.forEach(storedRecipeIngredients::remove);
+        storedRecipeIngredients.addAll(insertedRecipeIngredients);
+        if (!deletedRecipeIngredients.isEmpty()) {
+            recipeIngredientRepository.deleteAll(deletedRecipeIngredients);
+        }
+        if (!insertedRecipeIngredients.isEmpty()) {
+            recipeIngredientRepository.saveAll(insertedRecipeIngredients);
+        }
 
-    private Optional<Ingredient> ingredientFilter(final List<Ingredient> ingredientsDb,
-                                                  final Ingredient ingredient) {
-        // Check in DB that ingredient exists by id and name
-        return ingredientsDb.stream()
-                .filter(ingredientDb -> ingredientDb.getName().equals(ingredient.getName()))
-                .findFirst();
+        return !(insertedRecipeIngredients.isEmpty() && updatedRecipeIngredients.isEmpty()
+                && deletedRecipeIngredients.isEmpty());
     }
 
-    private Boolean recipeIngredientFilter(final List<RecipeIngredient> recipeIngredientsDb,
-                                           final RecipeIngredient recipeIngredient) {
-        return recipeIngredientsDb.stream()
-                .filter(recipeIngredientDb ->
-                        Objects.equals(recipeIngredientDb.getAmount(),
-                                recipeIngredient.getAmount()) &&
-                                Objects.equals(recipeIngredientDb.getMeasure(),
-                                        recipeIngredient.getMeasure()) &&
-                                Objects.equals(recipeIngredientDb.getIngredient().getName(),
-                                        recipeIngredient.getIngredient().getName()) &&
-                                Objects.equals(recipeIngredientDb.getRecipe().getId(),
-                                        recipeIngredient.getRecipe().getId())
-                )
-                .findFirst()
-                .isEmpty();
-    }
+    @Value
+    private static class RecipeIngredientKey {
 
+        Long ingredientId;
+        Integer amount;
+        Measure measure;
+
+        static RecipeIngredientKey of(final RecipeIngredient recipeIngredient) {
+            return new RecipeIngredientKey(recipeIngredient.getIngredient().getId(),
+                    recipeIngredient.getAmount(), recipeIngredient.getMeasure());
+        }
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.cookbook.recipes.mapper;
 
+import com.cookbook.recipes.mapper.utils.SanitizePolicy;
 import com.cookbook.recipes.mapper.utils.TransformHelper;
 import com.cookbook.recipes.model.*;
 import org.mapstruct.IterableMapping;
@@ -22,6 +23,11 @@ public interface RecipeMapper {
     @Mapping(target = "recipeIngredients", source = "recipeIngredients", qualifiedByName = "mapGeneratedRecipeIngredients")
     GeneratedRecipe toGeneratedRecipe(final Recipe recipe);
 
+    // The lazy recipe ingredients are not touched, e.g. when only the fields of a recipe are patched
+    @Mapping(target = "recipeId", source = "id")
+    @Mapping(target = "recipeIngredients", ignore = true)
+    GeneratedRecipe toGeneratedRecipeWithoutIngredients(final Recipe recipe);
+
     @Named("mapGeneratedRecipeIngredients")
     @IterableMapping(qualifiedByName = "mapGeneratedRecipeIngredient")
     Set<GeneratedRecipeIngredient> mapGeneratedRecipeIngredients(final Set<RecipeIngredient> recipeIngredients);
@@ -39,13 +45,15 @@ public interface RecipeMapper {
     GeneratedIngredient mapGeneratedIngredient(final Ingredient ingredient);
 
     @Mapping(target = "id", source = "recipeId")
-    @Mapping(target = "name", source = "name")
-    @Mapping(target = "description", source = "description")
+    @Mapping(target = "name", source = "name", qualifiedByName = "stripTags")
+    @Mapping(target = "description", source = "description", qualifiedByName = "stripTags")
     @Mapping(target = "image", source = "image")
     @Mapping(target = "instruction", source = "instruction", qualifiedByName = "sanitizeInvalidCharacters")
     @Mapping(target = "createdAt", source = "createdAt")
     @Mapping(target = "isVegetarian", source = "isVegetarian")
     @Mapping(target = "recipeIngredients", ignore = true)
+    // The version is read-only, it is only changed by Hibernate
+    @Mapping(target = "version", ignore = true)
     Recipe toRecipe(final GeneratedRecipe generatedRecipe);
 
     @Named("mapRecipeIngredient")
@@ -68,4 +76,9 @@ public interface RecipeMapper {
         return TransformHelper.sanitize(instruction);
     }
 
+    @Named("stripTags")
+    default String stripTags(final String text) {
+        return TransformHelper.sanitize(text, SanitizePolicy.STRIP_TAGS);
+    }
+
 }
@@ -11,6 +11,7 @@ public interface SearchFilterMapper {
 
     @Mapping(target = "filterCriteria", source = "filterCriteria", qualifiedByName = "mapFilterCriteria")
     @Mapping(target = "filterValues", source = "filterValues", qualifiedByName = "mapFilterValue")
+    @Mapping(target = "filterExpression", source = "filterExpression", qualifiedByName = "mapFilterExpression")
     SearchFilter toSearchFilter(final GeneratedSearchFilter generatedSearchFilter);
 
     @Named("mapFilterCriteria")
@@ -40,4 +41,13 @@ public interface SearchFilterMapper {
     @Mapping(target = "numberOfServings", source = "numberOfServings")
     FilterValues mapFilterValue(final GeneratedFilterValues generatedFilterValues);
 
+    // Operands are mapped recursively by the same method
+    @Named("mapFilterExpression")
+    @Mapping(target = "operator", source = "operator")
+    @Mapping(target = "operands", source = "operands", qualifiedByName = "mapFilterExpression")
+    @Mapping(target = "filterValues", source = "filterValues", qualifiedByName = "mapFilterValue")
+    FilterExpression mapFilterExpression(final GeneratedFilterExpression generatedFilterExpression);
+
+    FilterOperator mapFilterOperator(final GeneratedFilterOperator generatedFilterOperator);
+
 }
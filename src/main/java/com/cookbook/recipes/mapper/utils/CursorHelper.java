@@ -0,0 +1,39 @@
+package com.cookbook.recipes.mapper.utils;
+
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+/*
+A cursor is an opaque token for clients. Internally it is the last seen recipe id
+encoded with URL safe Base64, so the next page can seek by id instead of using OFFSET.
+ */
+@UtilityClass
+public class CursorHelper {
+
+    public static final Long FIRST_PAGE_RECIPE_ID = 0L;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // The limit of a request is kept within 1 and MAX_PAGE_SIZE
+    public int pageSize(final Integer limit) {
+        return Math.max(1, Math.min(Optional.ofNullable(limit).orElse(DEFAULT_PAGE_SIZE), MAX_PAGE_SIZE));
+    }
+
+    public String encode(final Long recipeId) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(recipeId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Long decode(final String cursor) {
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException exception) {
+            // NumberFormatException is an IllegalArgumentException as well
+            throw new IllegalArgumentException(String.format("Cursor %s is not valid", cursor), exception);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.cookbook.recipes.mapper.utils;
+
+import lombok.experimental.UtilityClass;
+import lombok.val;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/*
+The ETag of a recipe is its version as a strong entity tag, e.g. "3".
+The ETag of the recipe list is the state of the RecipeChangeCounter, e.g. "1666000000000-12".
+ */
+@UtilityClass
+public class ETagHelper {
+
+    private static final String ANY = "*";
+    private static final String ETAG_SEPARATOR = ",";
+    private static final String WEAK_PREFIX = "W/";
+
+    public String toETag(final Long version) {
+        return toETag(version.toString());
+    }
+
+    public String toETag(final String opaqueTag) {
+        return "\"" + opaqueTag + "\"";
+    }
+
+    // If-Match uses the strong comparison of RFC 7232, so a weak ETag (W/"3") never matches
+    public boolean matches(final String ifMatch, final Long version) {
+        val eTag = toETag(version);
+        return entityTagsOf(ifMatch).anyMatch(entityTag -> ANY.equals(entityTag) || eTag.equals(entityTag));
+    }
+
+    // If-None-Match uses the weak comparison, so W/"3" matches "3", e.g. after a proxy compressed the response
+    public boolean matchesWeakly(final String ifNoneMatch, final String eTag) {
+        return entityTagsOf(ifNoneMatch)
+                .map(entityTag -> entityTag.startsWith(WEAK_PREFIX)
+                        ? entityTag.substring(WEAK_PREFIX.length())
+                        : entityTag)
+                .anyMatch(entityTag -> ANY.equals(entityTag) || eTag.equals(entityTag));
+    }
+
+    private Stream<String> entityTagsOf(final String header) {
+        return Arrays.stream(header.split(ETAG_SEPARATOR)).map(String::trim);
+    }
+}
@@ -0,0 +1,34 @@
+package com.cookbook.recipes.mapper.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.experimental.UtilityClass;
+import lombok.val;
+
+/*
+JSON merge patch (RFC 7396): members of a patch object replace the members of the target,
+a null member removes it, nested objects are merged recursively and any other value,
+including an array, replaces the target as a whole.
+ */
+@UtilityClass
+public class MergePatchHelper {
+
+    public JsonNode apply(final JsonNode target, final JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch.deepCopy();
+        }
+
+        val result = target != null && target.isObject()
+                ? target.<ObjectNode>deepCopy()
+                : JsonNodeFactory.instance.objectNode();
+        patch.fields().forEachRemaining(member -> {
+            if (member.getValue().isNull()) {
+                result.remove(member.getKey());
+            } else {
+                result.set(member.getKey(), apply(result.get(member.getKey()), member.getValue()));
+            }
+        });
+        return result;
+    }
+}
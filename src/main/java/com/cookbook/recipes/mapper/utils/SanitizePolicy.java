@@ -0,0 +1,68 @@
+package com.cookbook.recipes.mapper.utils;
+
+import lombok.val;
+
+/*
+The characters stripped from a text field, chosen per field in RecipeMapper.
+
+The text is scanned once, every character is looked up in a table of the ASCII characters to strip.
+Clean text, the common case, is returned as the same instance without any allocation. Otherwise the text is
+copied once, in runs between the characters to strip. Only ASCII characters can be stripped.
+ */
+public final class SanitizePolicy {
+
+    // Markup characters of instructions are removed
+    public static final SanitizePolicy STRIP_MARKUP = strip("&<>");
+    /*
+    Tags of names and descriptions are removed, their ampersands are kept, e.g. "Mac & cheese".
+    The text is stored and returned as written, so a recipe read and saved again is not changed.
+    */
+    public static final SanitizePolicy STRIP_TAGS = strip("<>");
+
+    private static final int ASCII_CHARACTERS = 128;
+
+    private final boolean[] strippedCharacters = new boolean[ASCII_CHARACTERS];
+
+    private SanitizePolicy(final String characters) {
+        for (val character : characters.toCharArray()) {
+            if (character >= ASCII_CHARACTERS) {
+                throw new IllegalArgumentException(String.format("Character %s can not be sanitized", character));
+            }
+            strippedCharacters[character] = true;
+        }
+    }
+
+    public static SanitizePolicy strip(final String characters) {
+        return new SanitizePolicy(characters);
+    }
+
+    public String apply(final String text) {
+        if (text == null) {
+            return null;
+        }
+        int index = indexOfStripped(text, 0);
+        if (index < 0) {
+            return text;
+        }
+
+        // Clean runs between the characters to strip are copied at once
+        val sanitizedText = new StringBuilder(text.length());
+        int runStart = 0;
+        while (index >= 0) {
+            sanitizedText.append(text, runStart, index);
+            runStart = index + 1;
+            index = indexOfStripped(text, runStart);
+        }
+        return sanitizedText.append(text, runStart, text.length()).toString();
+    }
+
+    private int indexOfStripped(final String text, final int fromIndex) {
+        for (int index = fromIndex; index < text.length(); index++) {
+            val character = text.charAt(index);
+            if (character < ASCII_CHARACTERS && strippedCharacters[character]) {
+                return index;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,36 @@
+package com.cookbook.recipes.mapper.utils;
+
+import lombok.experimental.UtilityClass;
+import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/*
+Splits a text into search terms: accents are removed, letters are lower cased
+and every character which is not a letter or a digit separates two terms.
+ */
+@UtilityClass
+public class TokenizerHelper {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    public List<String> tokenize(final String text) {
+        if (StringUtils.isBlank(text)) {
+            return List.of();
+        }
+
+        val folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARATORS.split(folded))
+                .filter(StringUtils::isNotEmpty)
+                .collect(Collectors.toList());
+    }
+}
@@ -1,25 +1,42 @@
 package com.cookbook.recipes.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.util.List;
+
+/*
+Predefined filters are kept for existing clients. Every criteria is an alias
+of the filter operators it combines with AND.
+ */
 @Getter
-@AllArgsConstructor
 public enum FilterCriteria {
 
-    IS_VEGETARIAN("by_is_vegetarian"),
-    NUMBER_OF_SERVINGS("by_number_of_servings"),
-    INSTRUCTION("by_instruction"),
-    NUMBER_OF_SERVINGS_GREATER_THAN_EQUAL("by_number_of_servings_greater_than_equal"),
-    INCL_INGREDIENTS("by_incl_ingredients"),
-    EXCL_INGREDIENTS("by_excl_ingredients"),
-    IS_VEGETARIAN_AND_NUMBER_OF_SERVINGS("by_is_vegetarian_and_number_of_servings"),
-    INGREDIENT_AND_NUMBER_OF_SERVINGS("by_ingredient_and_number_of_servings"),
-    EXCL_INGREDIENT_AND_INCL_INSTRUCTION("excl_ingredient_and_incl_instruction"),
+    IS_VEGETARIAN("by_is_vegetarian", FilterOperator.IS_VEGETARIAN),
+    NUMBER_OF_SERVINGS("by_number_of_servings", FilterOperator.NUMBER_OF_SERVINGS),
+    INSTRUCTION("by_instruction", FilterOperator.INSTRUCTION),
+    NUMBER_OF_SERVINGS_GREATER_THAN_EQUAL("by_number_of_servings_greater_than_equal",
+            FilterOperator.NUMBER_OF_SERVINGS_GREATER_THAN_EQUAL),
+    INCL_INGREDIENTS("by_incl_ingredients", FilterOperator.INCL_INGREDIENTS),
+    EXCL_INGREDIENTS("by_excl_ingredients", FilterOperator.EXCL_INGREDIENTS),
+    IS_VEGETARIAN_AND_NUMBER_OF_SERVINGS("by_is_vegetarian_and_number_of_servings",
+            FilterOperator.IS_VEGETARIAN, FilterOperator.NUMBER_OF_SERVINGS),
+    INGREDIENT_AND_NUMBER_OF_SERVINGS("by_ingredient_and_number_of_servings",
+            FilterOperator.INCL_INGREDIENTS, FilterOperator.NUMBER_OF_SERVINGS),
+    EXCL_INGREDIENT_AND_INCL_INSTRUCTION("excl_ingredient_and_incl_instruction",
+            FilterOperator.EXCL_INGREDIENTS, FilterOperator.INSTRUCTION),
     INSTRUCTION_AND_IS_VEGETARIAN_AND_NUMBER_OF_SERVINGS
-            ("by_instruction_and_is_vegetarian_and_number_of_servings"),
+            ("by_instruction_and_is_vegetarian_and_number_of_servings",
+                    FilterOperator.INSTRUCTION, FilterOperator.IS_VEGETARIAN, FilterOperator.NUMBER_OF_SERVINGS),
     INGREDIENTS_AND_INSTRUCTION_AND_IS_VEGETARIAN_AND_NUMBER_OF_SERVINGS(
-            "by_ingredients_and_instruction_and_is_vegetarian_and_number_of_servings");
+            "by_ingredients_and_instruction_and_is_vegetarian_and_number_of_servings",
+            FilterOperator.INCL_INGREDIENTS, FilterOperator.INSTRUCTION,
+            FilterOperator.IS_VEGETARIAN, FilterOperator.NUMBER_OF_SERVINGS);
 
     private String value;
+    private List<FilterOperator> filterOperators;
+
+    FilterCriteria(final String value, final FilterOperator... filterOperators) {
+        this.value = value;
+        this.filterOperators = List.of(filterOperators);
+    }
 }
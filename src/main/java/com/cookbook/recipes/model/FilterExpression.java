@@ -0,0 +1,22 @@
+package com.cookbook.recipes.model;
+
+import lombok.*;
+
+import java.util.List;
+
+/*
+A node of a filter tree. Logical nodes (AND, OR, NOT) only have operands,
+predicate nodes only have the filter values their operator reads.
+ */
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FilterExpression {
+
+    private FilterOperator operator;
+    private List<FilterExpression> operands;
+    private FilterValues filterValues;
+}
@@ -0,0 +1,25 @@
+package com.cookbook.recipes.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum FilterOperator {
+
+    AND("and"),
+    OR("or"),
+    NOT("not"),
+    INSTRUCTION("instruction"),
+    IS_VEGETARIAN("is_vegetarian"),
+    NUMBER_OF_SERVINGS("number_of_servings"),
+    NUMBER_OF_SERVINGS_GREATER_THAN_EQUAL("number_of_servings_greater_than_equal"),
+    INCL_INGREDIENTS("incl_ingredients"),
+    EXCL_INGREDIENTS("excl_ingredients");
+
+    private String value;
+
+    public boolean isLogical() {
+        return this == AND || this == OR || this == NOT;
+    }
+}
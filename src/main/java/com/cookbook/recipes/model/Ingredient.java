@@ -12,11 +12,13 @@ import java.util.Set;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "INGREDIENTS")
+@Table(name = "INGREDIENTS",
+        uniqueConstraints = @UniqueConstraint(name = "UK_INGREDIENTS_NAMES", columnNames = "names"))
 public class Ingredient {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingredients_seq")
+    @SequenceGenerator(name = "ingredients_seq", sequenceName = "INGREDIENTS_SEQ", allocationSize = 50)
     private Long id;
 
     @Column(name = "names")
@@ -3,6 +3,7 @@ package com.cookbook.recipes.model;
 import lombok.*;
 import org.hibernate.annotations.Cascade;
 import org.hibernate.annotations.CascadeType;
+import org.hibernate.annotations.ColumnDefault;
 
 import javax.persistence.*;
 import java.time.LocalDate;
@@ -16,10 +17,26 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "RECIPES")
+@NamedEntityGraph(
+        name = Recipe.RECIPE_INGREDIENTS_GRAPH,
+        attributeNodes = @NamedAttributeNode(value = "recipeIngredients", subgraph = "ingredient"),
+        subgraphs = @NamedSubgraph(name = "ingredient", attributeNodes = @NamedAttributeNode("ingredient")))
 public class Recipe {
 
+    /*
+    Recipe ingredients are lazy, so every read path asks for them explicitly with this graph
+    and the whole recipe including its ingredients is loaded by one select.
+    */
+    public static final String RECIPE_INGREDIENTS_GRAPH = "Recipe.recipeIngredients";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    /*
+    IDENTITY ids are only known after their insert, which disables JDBC batching.
+    Sequence ids are taken in blocks of 50 (pooled-lo optimizer), so a new recipe with all its ingredients
+    is inserted by a few batched statements.
+    */
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipes_seq")
+    @SequenceGenerator(name = "recipes_seq", sequenceName = "RECIPES_SEQ", allocationSize = 50)
     private Long id;
 
     @Column(name = "names")
@@ -35,7 +52,17 @@ public class Recipe {
     private Boolean isVegetarian;
     private Integer numberOfServings;
 
-    @OneToMany(mappedBy = "recipe", fetch = FetchType.EAGER)
+    /*
+    Incremented by every change of the recipe, including changes of its ingredients, and returned as its ETag.
+    The UPDATE and DELETE of a recipe check it, so a concurrent change fails instead of being overwritten.
+    */
+    @Version
+    @ColumnDefault("0") // Rows inserted without a version, e.g. by the DataLoader, start at 0
+    @Column(nullable = false)
+    private Long version;
+
+    @OneToMany(mappedBy = "recipe")
     @Cascade(CascadeType.ALL)
+    @ToString.Exclude
     private Set<RecipeIngredient> recipeIngredients;
 }
@@ -17,16 +17,18 @@ import javax.persistence.*;
 public class RecipeIngredient {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipe_ingredients_seq")
+    @SequenceGenerator(name = "recipe_ingredients_seq", sequenceName = "RECIPE_INGREDIENTS_SEQ", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @Cascade(CascadeType.PERSIST)
     @JoinColumn(name = "recipe_id")
+    @ToString.Exclude
     private Recipe recipe;
 
-    @ManyToOne
-    @Cascade(CascadeType.PERSIST)
+    // Ingredients are resolved to existing rows before a recipe is saved, see IngredientDictionary
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ingredient_id")
     private Ingredient ingredient;
 
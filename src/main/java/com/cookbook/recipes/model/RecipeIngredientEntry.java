@@ -0,0 +1,14 @@
+package com.cookbook.recipes.model;
+
+/*
+Interface based projection: Spring Data creates a proxy backed by the selected columns,
+so an ingredient of a recipe can be read without loading the entities.
+ */
+public interface RecipeIngredientEntry {
+
+    Long getRecipeId();
+
+    Long getIngredientId();
+
+    String getIngredientName();
+}
@@ -0,0 +1,13 @@
+package com.cookbook.recipes.model;
+
+// Interface based projection of the searchable text of a recipe
+public interface RecipeText {
+
+    Long getRecipeId();
+
+    String getName();
+
+    String getDescription();
+
+    String getInstruction();
+}
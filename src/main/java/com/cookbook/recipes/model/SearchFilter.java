@@ -12,4 +12,5 @@ public class SearchFilter {
 
     private FilterCriteria filterCriteria;
     private FilterValues filterValues;
+    private FilterExpression filterExpression;
 }
@@ -0,0 +1,15 @@
+package com.cookbook.recipes.repository;
+
+import com.cookbook.recipes.model.Recipe;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/*
+Fragment of RecipeRepository. Spring Data can not select a single column of a specification,
+so the ids of the recipes matching a filter are selected with a criteria query instead.
+ */
+public interface RecipeIdRepository {
+
+    List<Long> findRecipeIds(Specification<Recipe> specification);
+}
@@ -0,0 +1,31 @@
+package com.cookbook.recipes.repository;
+
+import com.cookbook.recipes.model.Recipe;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class RecipeIdRepositoryImpl implements RecipeIdRepository {
+
+    private static final String ID = "id";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Long> findRecipeIds(final Specification<Recipe> specification) {
+        val criteriaBuilder = entityManager.getCriteriaBuilder();
+        val query = criteriaBuilder.createQuery(Long.class);
+        val recipe = query.from(Recipe.class);
+        query.select(recipe.get(ID)).orderBy(criteriaBuilder.asc(recipe.get(ID)));
+
+        val predicate = specification.toPredicate(recipe, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getResultList();
+    }
+}
@@ -1,10 +1,29 @@
 package com.cookbook.recipes.repository;
 
 import com.cookbook.recipes.model.RecipeIngredient;
+import com.cookbook.recipes.model.RecipeIngredientEntry;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface RecipeIngredientRepository extends JpaRepository<RecipeIngredient, Long>,
         JpaSpecificationExecutor<RecipeIngredient> {
 
+    // Only the ids and the ingredient name are selected, no entity is loaded
+    @Query("SELECT ri.recipe.id AS recipeId, i.id AS ingredientId, i.name AS ingredientName " +
+            "FROM RecipeIngredient ri JOIN ri.ingredient i")
+    List<RecipeIngredientEntry> findAllEntries();
+
+    /*
+    Entries of the recipes of the ids in one query. A recipe without ingredients has one entry
+    without an ingredient, a recipe which does not exist has none.
+    */
+    @Query("SELECT r.id AS recipeId, i.id AS ingredientId, i.name AS ingredientName " +
+            "FROM Recipe r LEFT JOIN r.recipeIngredients ri LEFT JOIN ri.ingredient i " +
+            "WHERE r.id IN (:recipeIds)")
+    List<RecipeIngredientEntry> findEntriesByRecipeIdIn(@Param("recipeIds") Collection<Long> recipeIds);
 }
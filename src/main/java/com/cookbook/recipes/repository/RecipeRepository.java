@@ -1,90 +1,78 @@
 package com.cookbook.recipes.repository;
 
 import com.cookbook.recipes.model.Recipe;
+import com.cookbook.recipes.model.RecipeText;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static com.cookbook.recipes.model.Recipe.RECIPE_INGREDIENTS_GRAPH;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface RecipeRepository extends JpaRepository<Recipe, Long>,
-        JpaSpecificationExecutor<Recipe> {
-
-    Optional<Recipe> getRecipeById(Long recipeId);
-
-    List<Recipe> findByIdIn(Set<Long> recipeIds);
+        JpaSpecificationExecutor<Recipe>, RecipeIdRepository {
 
-    List<Recipe> findByIdNotIn(Set<Long> recipeIds);
-
-    List<Recipe> findByInstructionContainingIgnoreCase(String instruction);
-
-    // Alternative method
     /*
-    @Query(value = "SELECT * FROM recipes r " +
-            "WHERE LOWER(r.instruction) " +
-            "LIKE LOWER(CONCAT('%', :instruction,'%'))",
-            nativeQuery = true)
-    List<Recipe> findByInstructionContainingIgnoreCase(@Param("instruction") String instruction);
+    Every read method loads recipes together with their ingredients using the RECIPE_INGREDIENTS_GRAPH,
+    so one select returns the whole object graph. Hibernate removes the duplicated recipe rows
+    of the fetch join in memory when an entity graph is applied.
     */
+    @EntityGraph(RECIPE_INGREDIENTS_GRAPH)
+    Optional<Recipe> getRecipeById(Long recipeId);
 
-    List<Recipe> findByIsVegetarian(Boolean isVegetarian);
-
-    List<Recipe> findByNumberOfServings(Integer numberOfServings);
-
-    List<Recipe> findByNumberOfServingsGreaterThanEqual(Integer numberOfServings);
-
-    List<Recipe> findByIsVegetarianAndNumberOfServings(Boolean isVegetarian, Integer numberOfServings);
-
-    Set<Recipe> findByRecipeIngredientsIngredientNameIn(Set<String> ingredients);
+    @Override
+    @EntityGraph(RECIPE_INGREDIENTS_GRAPH)
+    List<Recipe> findAll(Specification<Recipe> specification);
 
-    //Alternative method
     /*
-    @Query(value = "SELECT * FROM recipes r " +
-            "INNER JOIN recipe_ingredients ri " +
-            "ON r.id = ri.recipe_id " +
-            "INNER JOIN ingredients i " +
-            "ON ri.ingredient_id = i.id " +
-            "WHERE i.name IN (:ingredients)",
-           nativeQuery = true)
-    Set<Recipe> findByRecipeIngredientsIngredientNameIn(@Param("ingredients") Set<String> ingredients);
+    Keyset (seek) pagination: every page starts right after the last seen id, so the database
+    walks the primary key index instead of skipping OFFSET rows and each page costs the same.
+    Only the page size of the pageable is used, its page number should always be 0.
+    Ids are selected first because a limit together with a fetch join would be applied in memory.
     */
+    @Query("SELECT r.id FROM Recipe r WHERE r.id > :recipeId ORDER BY r.id")
+    List<Long> findRecipeIdsAfter(@Param("recipeId") Long recipeId, Pageable pageable);
 
-    Set<Recipe> findByRecipeIngredientsIngredientNameInAndNumberOfServings(Set<String> ingredients,
-                                                                           Integer numberOfServings);
+    @EntityGraph(RECIPE_INGREDIENTS_GRAPH)
+    List<Recipe> findByIdInOrderByIdAsc(Collection<Long> recipeIds);
 
-    // Alternative method
-    /*
-    @Query(value = "SELECT * FROM recipes r " +
-             "INNER JOIN recipe_ingredients ri " +
-             "ON r.id = ri.recipe_id " +
-             "INNER JOIN ingredients i " +
-             "ON ri.ingredient_id = i.id " +
-             "WHERE i.name IN (:ingredients) " +
-             "AND r.number_of_servings = :number_of_servings",
-            nativeQuery = true)
-     Set<Recipe> findByRecipeIngredientsIngredientNameInAndNumberOfServings(
-             @Param("ingredients") Set<String> ingredient, @Param("number_of_servings") Integer numberOfServings);
-    */
+    // Validates a conditional request without loading the recipe and its ingredients
+    @Query("SELECT r.version FROM Recipe r WHERE r.id = :recipeId")
+    Optional<Long> findVersionById(@Param("recipeId") Long recipeId);
+
+    @Query("SELECT r.id FROM Recipe r")
+    List<Long> findAllRecipeIds();
 
+    @Query("SELECT r.id AS recipeId, r.name AS name, r.description AS description, r.instruction AS instruction " +
+            "FROM Recipe r")
+    List<RecipeText> findAllRecipeTexts();
 
-    Set<Recipe> findByInstructionContainingIgnoreCaseAndRecipeIngredientsIngredientNameNotIn(String instruction,
-                                                                                             Set<String> ingredients);
+    @Query("SELECT r.id AS recipeId, r.name AS name, r.description AS description, r.instruction AS instruction " +
+            "FROM Recipe r WHERE r.id IN (:recipeIds)")
+    List<RecipeText> findRecipeTextsByIdIn(@Param("recipeIds") Collection<Long> recipeIds);
 
-    // Alternative method
     /*
-    @Query(value = "SELECT * FROM recipes r " +
-            "INNER JOIN recipe_ingredients ri " +
-            "ON r.id = ri.recipe_id " +
-            "INNER JOIN ingredients i " +
-            "ON ri.ingredient_id = i.id " +
-            "WHERE i.name NOT IN (:ingredients) " +
-            "AND LOWER(r.instruction) LIKE LOWER(CONCAT('%', :instruction,'%'))",
-            nativeQuery = true)
-    Set<Recipe> findByInstructionContainingIgnoreCaseAndRecipeIngredientsIngredientNameNotIn(
-            @Param("instruction") String instruction, @Param("ingredients") Set<String> ingredientName);
+    Rows are pulled from an open JDBC cursor in chunks of the fetch size while the stream is consumed,
+    so the caller must keep a transaction open and close the stream.
     */
-
+    @EntityGraph(RECIPE_INGREDIENTS_GRAPH)
+    @QueryHints(value = {
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    Stream<Recipe> streamAllByOrderByIdAsc();
 }
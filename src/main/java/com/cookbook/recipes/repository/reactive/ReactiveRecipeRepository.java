@@ -0,0 +1,136 @@
+package com.cookbook.recipes.repository.reactive;
+
+import com.cookbook.recipes.model.Ingredient;
+import com.cookbook.recipes.model.Recipe;
+import com.cookbook.recipes.model.RecipeIngredient;
+import com.cookbook.recipes.model.converter.MeasureConverter;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Row;
+import lombok.val;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+Reads recipes together with their ingredients over R2DBC, for the reactive read path.
+
+Like the entity graph of RecipeRepository, one select joins a recipe with its ingredients.
+Rows are ordered by recipe, so a recipe is emitted as soon as its last row is read and the rows
+are only pulled from the database as fast as the subscriber requests recipes.
+The recipes are the same detached entities as those of the JPA repository, so RecipeMapper maps them alike.
+ */
+public class ReactiveRecipeRepository implements DisposableBean {
+
+    // Ids are fetched in chunks, so the order of the ids is kept without holding all recipes
+    private static final int ID_CHUNK_SIZE = 100;
+
+    private static final String SELECT_RECIPES = "SELECT r.id, r.names, r.descriptions, r.images, r.instructions, "
+            + "r.created_at, r.is_vegetarian, r.number_of_servings, r.version, "
+            + "ri.id AS recipe_ingredient_id, ri.amount, ri.measures, "
+            + "i.id AS ingredient_id, i.names AS ingredient_name ";
+    private static final String JOIN_RECIPE_INGREDIENTS = "LEFT JOIN recipe_ingredients ri ON ri.recipe_id = r.id "
+            + "LEFT JOIN ingredients i ON i.id = ri.ingredient_id ";
+    private static final String ORDER_BY_RECIPE = "ORDER BY r.id, ri.id";
+
+    private static final MeasureConverter MEASURE_CONVERTER = new MeasureConverter();
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+
+    public ReactiveRecipeRepository(final ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+        this.databaseClient = DatabaseClient.create(connectionPool);
+    }
+
+    // Keyset pagination as RecipeRepository.findRecipeIdsAfter, the page is limited before it is joined
+    public Flux<Recipe> findRecipesAfter(final Long recipeId, final int limit) {
+        return selectRecipes(databaseClient.sql(SELECT_RECIPES
+                        + "FROM (SELECT * FROM recipes WHERE id > :recipeId ORDER BY id LIMIT :limit) r "
+                        + JOIN_RECIPE_INGREDIENTS + ORDER_BY_RECIPE)
+                .bind("recipeId", recipeId)
+                .bind("limit", limit));
+    }
+
+    public Mono<Recipe> findRecipeById(final Long recipeId) {
+        return selectRecipes(databaseClient.sql(SELECT_RECIPES + "FROM recipes r " + JOIN_RECIPE_INGREDIENTS
+                        + "WHERE r.id = :recipeId " + ORDER_BY_RECIPE)
+                .bind("recipeId", recipeId))
+                .next();
+    }
+
+    // Validates a conditional request without reading the recipe, see RecipeRepository.findVersionById
+    public Mono<Long> findVersionById(final Long recipeId) {
+        return databaseClient.sql("SELECT version FROM recipes WHERE id = :recipeId")
+                .bind("recipeId", recipeId)
+                .map(row -> row.get("version", Long.class))
+                .one();
+    }
+
+    // Recipes are returned in the order of the ids, e.g. ranked by relevance
+    public Flux<Recipe> findRecipesByIds(final List<Long> recipeIds) {
+        return Flux.fromIterable(recipeIds)
+                .buffer(ID_CHUNK_SIZE)
+                .concatMap(chunk -> selectRecipes(databaseClient.sql(SELECT_RECIPES + "FROM recipes r "
+                                + JOIN_RECIPE_INGREDIENTS + "WHERE r.id IN (:recipeIds) " + ORDER_BY_RECIPE)
+                        .bind("recipeIds", chunk))
+                        .collectMap(Recipe::getId, Function.identity())
+                        .flatMapIterable(recipesById -> chunk.stream()
+                                .map(recipesById::get)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toList())));
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+
+    private Flux<Recipe> selectRecipes(final DatabaseClient.GenericExecuteSpec executeSpec) {
+        return executeSpec.map(ReactiveRecipeRepository::toRecipeIngredient)
+                .all()
+                .bufferUntilChanged(recipeIngredient -> recipeIngredient.getRecipe().getId())
+                .map(ReactiveRecipeRepository::toRecipe);
+    }
+
+    // Every row is an ingredient of its recipe, a recipe without ingredients has one row without an ingredient
+    private static RecipeIngredient toRecipeIngredient(final Row row) {
+        val recipe = Recipe.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("names", String.class))
+                .description(row.get("descriptions", String.class))
+                .image(row.get("images", String.class))
+                .instruction(row.get("instructions", String.class))
+                .createdAt(row.get("created_at", LocalDate.class))
+                .isVegetarian(row.get("is_vegetarian", Boolean.class))
+                .numberOfServings(row.get("number_of_servings", Integer.class))
+                .version(row.get("version", Long.class))
+                .build();
+        return RecipeIngredient.builder()
+                .id(row.get("recipe_ingredient_id", Long.class))
+                .recipe(recipe)
+                .ingredient(Ingredient.builder()
+                        .id(row.get("ingredient_id", Long.class))
+                        .name(row.get("ingredient_name", String.class))
+                        .build())
+                .amount(row.get("amount", Integer.class))
+                .measure(MEASURE_CONVERTER.convertToEntityAttribute(row.get("measures", String.class)))
+                .build();
+    }
+
+    private static Recipe toRecipe(final List<RecipeIngredient> rows) {
+        val recipe = rows.get(0).getRecipe();
+        recipe.setRecipeIngredients(rows.stream()
+                .filter(recipeIngredient -> recipeIngredient.getId() != null)
+                .peek(recipeIngredient -> recipeIngredient.setRecipe(recipe))
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+        return recipe;
+    }
+}
@@ -0,0 +1,144 @@
+package com.cookbook.recipes.repository.spec;
+
+import com.cookbook.recipes.model.FilterCriteria;
+import com.cookbook.recipes.model.FilterExpression;
+import com.cookbook.recipes.model.FilterOperator;
+import com.cookbook.recipes.model.FilterValues;
+import com.cookbook.recipes.model.Recipe;
+import lombok.val;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static com.cookbook.recipes.repository.spec.RecipeSpecifications.*;
+
+/*
+Compiles a filter expression tree into one Specification<Recipe>.
+
+Nothing is cached per shape of a filter: a Specification is only a description of the criteria,
+Hibernate builds the criteria query from it on every call anyway. Plans are reused one level lower,
+with hibernate.criteria.literal_handling_mode=bind every filter of the same shape renders the same SQL,
+so Hibernate and the database reuse their query plans.
+
+An instruction predicate stays in the statement as a case insensitive substring of the instruction.
+Only a filter of a single instruction predicate is answered by RecipeTextIndex instead, see RecipeService.
+ */
+@Component
+public class RecipeFilterCompiler {
+
+    private static final int MAX_DEPTH = 8;
+
+    public Specification<Recipe> compile(final FilterExpression filterExpression) {
+        return compile(filterExpression, 1);
+    }
+
+    public FilterExpression fromFilterCriteria(final FilterCriteria filterCriteria, final FilterValues filterValues) {
+        val predicates = filterCriteria.getFilterOperators()
+                .stream()
+                .map(filterOperator -> FilterExpression.builder()
+                        .operator(filterOperator)
+                        .filterValues(filterValues)
+                        .build())
+                .collect(Collectors.toList());
+
+        return predicates.size() == 1
+                ? predicates.get(0)
+                : FilterExpression.builder().operator(FilterOperator.AND).operands(predicates).build();
+    }
+
+    // Validates every node of the expression while it is compiled
+    private Specification<Recipe> compile(final FilterExpression filterExpression, final int depth) {
+        if (filterExpression == null || filterExpression.getOperator() == null) {
+            throw new IllegalArgumentException("Filter expression requires an operator");
+        }
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException(
+                    String.format("Filter expression is nested deeper than %s levels", MAX_DEPTH));
+        }
+
+        val filterOperator = filterExpression.getOperator();
+        if (!filterOperator.isLogical()) {
+            requireFilterValue(filterOperator, filterExpression.getFilterValues());
+            return predicate(filterOperator, filterExpression.getFilterValues());
+        }
+
+        val operands = Objects.requireNonNullElse(filterExpression.getOperands(), List.<FilterExpression>of());
+        if (operands.isEmpty() || (filterOperator == FilterOperator.NOT && operands.size() > 1)) {
+            throw new IllegalArgumentException(String.format(
+                    "Filter operator %s requires %s", filterOperator.getValue(),
+                    filterOperator == FilterOperator.NOT ? "exactly one operand" : "at least one operand"));
+        }
+
+        if (filterOperator == FilterOperator.NOT) {
+            return Specification.not(compile(operands.get(0), depth + 1));
+        }
+
+        Specification<Recipe> specification = null;
+        for (val operand : operands) {
+            val operandSpecification = compile(operand, depth + 1);
+            specification = specification == null
+                    ? Specification.where(operandSpecification)
+                    : filterOperator == FilterOperator.AND
+                    ? specification.and(operandSpecification)
+                    : specification.or(operandSpecification);
+        }
+        return specification;
+    }
+
+    private Specification<Recipe> predicate(final FilterOperator filterOperator, final FilterValues filterValues) {
+        switch (filterOperator) {
+            case INSTRUCTION:
+                return instructionContainsIgnoreCase(filterValues.getInstruction());
+            case IS_VEGETARIAN:
+                return recipeIsVegetarian(filterValues.getIsVegetarian());
+            case NUMBER_OF_SERVINGS:
+                return numberOfServingsEqual(filterValues.getNumberOfServings());
+            case NUMBER_OF_SERVINGS_GREATER_THAN_EQUAL:
+                return numberOfServingsGreaterThanEqual(filterValues.getNumberOfServings());
+            case INCL_INGREDIENTS:
+                return ingredientsContains(filterValues.getIngredients());
+            case EXCL_INGREDIENTS:
+                return ingredientsDoNotContain(filterValues.getIngredients());
+            default:
+                throw new IllegalArgumentException(
+                        String.format("Filter operator %s is not a predicate", filterOperator.getValue()));
+        }
+    }
+
+    private void requireFilterValue(final FilterOperator filterOperator, final FilterValues filterValues) {
+        Object filterValue = null;
+        String filterValueName = null;
+
+        switch (filterOperator) {
+            case INSTRUCTION:
+                filterValueName = "instruction";
+                filterValue = filterValues == null ? null : filterValues.getInstruction();
+                break;
+            case IS_VEGETARIAN:
+                filterValueName = "is_vegetarian";
+                filterValue = filterValues == null ? null : filterValues.getIsVegetarian();
+                break;
+            case NUMBER_OF_SERVINGS:
+            case NUMBER_OF_SERVINGS_GREATER_THAN_EQUAL:
+                filterValueName = "number_of_servings";
+                filterValue = filterValues == null ? null : filterValues.getNumberOfServings();
+                break;
+            case INCL_INGREDIENTS:
+            case EXCL_INGREDIENTS:
+                filterValueName = "ingredients";
+                filterValue = filterValues == null || filterValues.getIngredients() == null
+                        || filterValues.getIngredients().isEmpty() ? null : filterValues.getIngredients();
+                break;
+            default:
+                break;
+        }
+
+        if (filterValue == null) {
+            throw new IllegalArgumentException(String.format(
+                    "Filter operator %s requires %s", filterOperator.getValue(), filterValueName));
+        }
+    }
+}
@@ -9,7 +9,8 @@ import org.springframework.data.jpa.domain.Specification;
 
 import javax.persistence.criteria.Join;
 import javax.persistence.criteria.JoinType;
-import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
 import java.util.Set;
 
 /*
@@ -31,23 +32,33 @@ public class RecipeSpecifications {
 
     /*
      * The Criteria Query API allows us to join the two tables when creating the Specification.
-     *  As a result, we'll be able to include the fields from the Ingredient entity inside our queries:
+     *  As a result, we'll be able to include the fields from the Ingredient entity inside our queries.
+     *  The join lives in a correlated EXISTS subquery (semi-join): every recipe is returned once no matter
+     *  how many of its ingredients match, and a join of recipeIngredients on the recipe root
+     *  would be reused by the entity graph of the repository and only the matching ingredients would be fetched.
      * */
     public static Specification<Recipe> ingredientsContains(Set<String> ingredients) {
         return (recipeRoot, criteriaQuery, criteriaBuilder) -> {
-            Join<Recipe, RecipeIngredient> recipeIngredientsJoin = recipeRoot
-                    .join("recipeIngredients", JoinType.INNER);
-            Join<RecipeIngredient, Ingredient> ingredientsJoin = recipeIngredientsJoin
+            Subquery<Long> recipeIngredientsSubquery = criteriaQuery.subquery(Long.class);
+            Root<RecipeIngredient> recipeIngredientRoot = recipeIngredientsSubquery.from(RecipeIngredient.class);
+            Join<RecipeIngredient, Ingredient> ingredientsJoin = recipeIngredientRoot
                     .join("ingredient", JoinType.INNER);
-            return  criteriaBuilder.in(ingredientsJoin.get("name")).value(ingredients);
+            recipeIngredientsSubquery
+                    .select(recipeIngredientRoot.get("id"))
+                    .where(criteriaBuilder.equal(recipeIngredientRoot.get("recipe"), recipeRoot),
+                            criteriaBuilder.in(ingredientsJoin.get("name")).value(ingredients));
+            return  criteriaBuilder.exists(recipeIngredientsSubquery);
         };
     }
 
-    public static Specification<Recipe> recipeIdsAreNot(Set<Long> recipeIds) {
-        return (recipeRoot, criteriaQuery, criteriaBuilder) -> {
-            Predicate predicate = recipeRoot.get("id").in(recipeIds);
-            return  criteriaBuilder.not(predicate);
-        };
+    /*
+     * Anti-join: NOT EXISTS drops every recipe having at least one of the ingredients within the same statement,
+     *  the database never has to return the excluded recipes or receive their ids back as a NOT IN list.
+     * */
+    public static Specification<Recipe> ingredientsDoNotContain(Set<String> ingredients) {
+        return (recipeRoot, criteriaQuery, criteriaBuilder) ->
+                criteriaBuilder.not(ingredientsContains(ingredients)
+                        .toPredicate(recipeRoot, criteriaQuery, criteriaBuilder));
     }
 
     public static Specification<Recipe> instructionContainsIgnoreCase(String instruction) {
@@ -66,4 +77,9 @@ public class RecipeSpecifications {
         return (recipeRoot, criteriaQuery, criteriaBuilder) ->
                 criteriaBuilder.equal(recipeRoot.get("numberOfServings"), numberOfServings);
     }
-}
+
+    public static Specification<Recipe> numberOfServingsGreaterThanEqual(Integer numberOfServings) {
+        return (recipeRoot, criteriaQuery, criteriaBuilder) ->
+                criteriaBuilder.greaterThanOrEqualTo(recipeRoot.get("numberOfServings"), numberOfServings);
+    }
+}
\ No newline at end of file
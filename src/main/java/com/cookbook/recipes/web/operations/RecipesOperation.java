@@ -1,58 +1,165 @@
 package com.cookbook.recipes.web.operations;
 
 import com.cookbook.recipes.api.RecipesApi;
+import com.cookbook.recipes.domain.services.RecipeBatchService;
 import com.cookbook.recipes.domain.services.RecipeService;
+import com.cookbook.recipes.mapper.utils.ETagHelper;
 import com.cookbook.recipes.model.GeneratedRecipe;
+import com.cookbook.recipes.model.GeneratedRecipeBatchResults;
 import com.cookbook.recipes.model.GeneratedRecipes;
 import com.cookbook.recipes.model.GeneratedSearchFilter;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+import static com.cookbook.recipes.config.ExecutorConfig.BULK_EXECUTOR;
+import static com.cookbook.recipes.config.ExecutorConfig.INTERACTIVE_EXECUTOR;
+
+/*
+Operations return at once and free their servlet thread, the work is done on the bounded executors
+of ExecutorConfig: interactive for single recipes and pages, bulk for search filters, batches and the export,
+so slow searches can not hold up cheap reads. A full queue is answered with 503.
+The reactive profile serves the reads with ReactiveRecipesHandler instead, see ReactiveConfig.
+ */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 public class RecipesOperation implements RecipesApi {
 
     private final RecipeService recipeService;
+    private final RecipeBatchService recipeBatchService;
+    @Qualifier(INTERACTIVE_EXECUTOR)
+    private final Executor interactiveExecutor;
+    @Qualifier(BULK_EXECUTOR)
+    private final Executor bulkExecutor;
+
+    /*
+    A conditional GET is answered with 304 before any recipe is read. The list ETag is taken before the page,
+    so a recipe changed in between makes the page newer than its ETag, never older.
+    */
+    @Override
+    public CompletableFuture<ResponseEntity<GeneratedRecipes>> getAllRecipes(final String after, final Integer limit,
+                                                                             final String ifNoneMatch) {
+        val eTag = recipeService.getRecipesETag();
+        if (ifNoneMatch != null && ETagHelper.matchesWeakly(ifNoneMatch, eTag)) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build());
+        }
+        return CompletableFuture.supplyAsync(
+                () -> ResponseEntity.ok().eTag(eTag).body(recipeService.getAllRecipes(after, limit)),
+                interactiveExecutor);
+    }
+
+    /*
+    Not part of recipes-api.yaml: the generated interface cannot return a StreamingResponseBody,
+    which writes newline delimited JSON on an async thread while the recipes are still being read.
+    Asynchronous MVC requests run on the bulk executor, see ExecutorConfig.
+    */
+    @GetMapping(value = "/recipes/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportRecipes() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(recipeService::exportRecipes);
+    }
 
     @Override
-    public ResponseEntity<GeneratedRecipes> getAllRecipes() {
-        val generatedRecipes = recipeService.getAllRecipes();
-        return ResponseEntity.ok(GeneratedRecipes.builder().generatedRecipes(generatedRecipes).build());
+    public CompletableFuture<ResponseEntity<GeneratedRecipe>> getRecipeById(final Long recipeId,
+                                                                            final String ifNoneMatch) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (ifNoneMatch != null) {
+                val eTag = recipeService.getRecipeVersion(recipeId).map(ETagHelper::toETag);
+                if (eTag.isPresent() && ETagHelper.matchesWeakly(ifNoneMatch, eTag.get())) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag.get()).build();
+                }
+            }
+            val generatedRecipe = recipeService.getRecipeById(recipeId);
+            return ResponseEntity.ok().eTag(ETagHelper.toETag(generatedRecipe.getVersion())).body(generatedRecipe);
+        }, interactiveExecutor);
     }
 
     @Override
-    public ResponseEntity<GeneratedRecipe> getRecipeById(final Long recipeId) {
-        return ResponseEntity.ok(recipeService.getRecipeById(recipeId));
+    public CompletableFuture<ResponseEntity<Void>> createRecipe(final GeneratedRecipe generatedRecipe) {
+        return CompletableFuture.supplyAsync(() -> {
+            val recipeId = recipeService.createRecipe(generatedRecipe);
+            return ResponseEntity.created(getUri(recipeId)).build();
+        }, interactiveExecutor);
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<GeneratedRecipeBatchResults>> createRecipes(
+            final List<GeneratedRecipe> generatedRecipes) {
+        return CompletableFuture.supplyAsync(
+                () -> ResponseEntity.ok(recipeBatchService.createRecipes(generatedRecipes)), bulkExecutor);
+    }
+
+    /*
+    Not part of recipes-api.yaml: the generated interface binds the whole body to a list,
+    while newline delimited JSON is read recipe by recipe from the request stream.
+    */
+    @PostMapping(value = "/recipes/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<GeneratedRecipeBatchResults>> importRecipes(
+            final InputStream inputStream) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return ResponseEntity.ok(recipeBatchService.importRecipes(inputStream));
+            } catch (IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+        }, bulkExecutor);
     }
 
     @Override
-    public ResponseEntity<Void> createRecipe(final GeneratedRecipe generatedRecipe) {
-        val recipeId = recipeService.createRecipe(generatedRecipe);
-        return ResponseEntity.created(getUri(recipeId)).build();
+    public CompletableFuture<ResponseEntity<Void>> updateRecipe(final Long recipeId,
+                                                                final GeneratedRecipe generatedRecipe,
+                                                                final String ifMatch) {
+        return CompletableFuture.supplyAsync(() -> {
+            val version = recipeService.updateRecipe(recipeId, generatedRecipe, ifMatch);
+            return ResponseEntity.noContent().eTag(ETagHelper.toETag(version)).build();
+        }, interactiveExecutor);
     }
 
     @Override
-    public ResponseEntity<Void> updateRecipe(final Long recipeId, final GeneratedRecipe generatedRecipe) {
-        recipeService.updateRecipe(recipeId, generatedRecipe);
-        return ResponseEntity.noContent().build();
+    public CompletableFuture<ResponseEntity<Void>> patchRecipe(final Long recipeId, final Object mergePatch,
+                                                               final String ifMatch) {
+        return CompletableFuture.supplyAsync(() -> {
+            val version = recipeService.patchRecipe(recipeId, mergePatch, ifMatch);
+            return ResponseEntity.noContent().eTag(ETagHelper.toETag(version)).build();
+        }, interactiveExecutor);
     }
 
     @Override
-    public ResponseEntity<Void> deleteRecipe(final Long recipeId) {
-        recipeService.deleteRecipe(recipeId);
-        return ResponseEntity.accepted().build();
+    public CompletableFuture<ResponseEntity<Void>> deleteRecipe(final Long recipeId, final String ifMatch) {
+        return CompletableFuture.supplyAsync(() -> {
+            recipeService.deleteRecipe(recipeId, ifMatch);
+            return ResponseEntity.accepted().build();
+        }, interactiveExecutor);
     }
 
     @Override
-    public ResponseEntity<GeneratedRecipes> postRecipesBySearchFilter(
+    public CompletableFuture<ResponseEntity<GeneratedRecipes>> postRecipesBySearchFilter(
             final GeneratedSearchFilter generatedSearchFilter) {
-        val generatedRecipes = recipeService.postRecipesBySearchFilter(generatedSearchFilter);
-        return ResponseEntity.ok(GeneratedRecipes.builder().generatedRecipes(generatedRecipes).build());
+        return CompletableFuture.supplyAsync(() -> {
+            val generatedRecipes = recipeService.postRecipesBySearchFilter(generatedSearchFilter);
+            return ResponseEntity.ok(GeneratedRecipes.builder().generatedRecipes(generatedRecipes).build());
+        }, bulkExecutor);
     }
 
     private static URI getUri(final String identity) {
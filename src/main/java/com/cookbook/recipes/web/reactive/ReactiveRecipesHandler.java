@@ -0,0 +1,163 @@
+package com.cookbook.recipes.web.reactive;
+
+import com.cookbook.recipes.domain.exception.BusinessServiceException;
+import com.cookbook.recipes.domain.exception.ExceptionHandler;
+import com.cookbook.recipes.domain.services.RecipeService;
+import com.cookbook.recipes.mapper.RecipeMapper;
+import com.cookbook.recipes.mapper.utils.CursorHelper;
+import com.cookbook.recipes.mapper.utils.ETagHelper;
+import com.cookbook.recipes.model.GeneratedRecipe;
+import com.cookbook.recipes.model.GeneratedRecipes;
+import com.cookbook.recipes.model.GeneratedSearchFilter;
+import com.cookbook.recipes.model.Problem;
+import com.cookbook.recipes.repository.reactive.ReactiveRecipeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.stream.Collectors;
+
+/*
+Non-blocking counterparts of the read operations of RecipesOperation, routed by ReactiveConfig.
+
+Recipes are read by the ReactiveRecipeRepository and answered with the same bodies, ETags and problems
+as the servlet stack. Search filters resolve their recipe ids with RecipeService, whose indexes, cache and
+JPA fallback block, so that step runs on the bounded elastic scheduler and never on an event loop.
+ */
+@RequiredArgsConstructor
+public class ReactiveRecipesHandler {
+
+    private static final String RECIPE_ID = "recipe_id";
+    private static final String AFTER = "after";
+    private static final String LIMIT = "limit";
+    private static final String RECIPE_DOES_NOT_EXIST = "Recipe with id: %s does not exist";
+    private static final String INVALID_PARAMETER = "Invalid value %s of parameter %s";
+
+    private final ReactiveRecipeRepository reactiveRecipeRepository;
+    private final RecipeService recipeService;
+    private final RecipeMapper recipeMapper;
+
+    // The list ETag is taken before the page, see RecipesOperation.getAllRecipes
+    public Mono<ServerResponse> getAllRecipes(final ServerRequest request) {
+        val eTag = recipeService.getRecipesETag();
+        if (isNotModified(request, eTag)) {
+            return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return Mono.fromCallable(() -> CursorHelper.pageSize(getLimit(request)))
+                .zipWith(Mono.fromCallable(() -> recipeService.decodeCursor(request.queryParam(AFTER).orElse(null))))
+                // One extra recipe tells whether there is a next page
+                .flatMap(page -> reactiveRecipeRepository.findRecipesAfter(page.getT2(), page.getT1() + 1)
+                        .collectList()
+                        .map(recipes -> {
+                            val pageSize = page.getT1();
+                            val hasNextPage = recipes.size() > pageSize;
+                            val pageRecipes = hasNextPage ? recipes.subList(0, pageSize) : recipes;
+                            return GeneratedRecipes.builder()
+                                    .generatedRecipes(pageRecipes.stream()
+                                            .map(recipeMapper::toGeneratedRecipe)
+                                            .collect(Collectors.toList()))
+                                    .nextCursor(hasNextPage
+                                            ? CursorHelper.encode(pageRecipes.get(pageSize - 1).getId())
+                                            : null)
+                                    .build();
+                        }))
+                .flatMap(generatedRecipes -> ServerResponse.ok()
+                        .eTag(eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(generatedRecipes))
+                .onErrorResume(BusinessServiceException.class, ReactiveRecipesHandler::toProblem);
+    }
+
+    public Mono<ServerResponse> getRecipeById(final ServerRequest request) {
+        return Mono.fromCallable(() -> getRecipeId(request))
+                .flatMap(recipeId -> getNotModified(request, recipeId)
+                        .switchIfEmpty(Mono.defer(() -> reactiveRecipeRepository.findRecipeById(recipeId)
+                                .map(recipeMapper::toGeneratedRecipe)
+                                .flatMap(generatedRecipe -> ServerResponse.ok()
+                                        .eTag(ETagHelper.toETag(generatedRecipe.getVersion()))
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .bodyValue(generatedRecipe))
+                                .switchIfEmpty(Mono.error(() -> ExceptionHandler.createBusinessServiceException(
+                                        HttpStatus.NOT_FOUND, String.format(RECIPE_DOES_NOT_EXIST, recipeId)))))))
+                .onErrorResume(BusinessServiceException.class, ReactiveRecipesHandler::toProblem);
+    }
+
+    /*
+    Recipes are streamed in the order of their ids as newline delimited JSON when the client accepts it,
+    each written as soon as it is read and only as fast as the client reads them.
+    Otherwise they are collected into one GeneratedRecipes body like on the servlet stack.
+    */
+    public Mono<ServerResponse> postRecipesBySearchFilter(final ServerRequest request) {
+        return request.bodyToMono(GeneratedSearchFilter.class)
+                .flatMap(generatedSearchFilter -> Mono
+                        .fromCallable(() -> recipeService.findRecipeIdsBySearchFilter(generatedSearchFilter))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .flatMap(recipeIds -> {
+                    val generatedRecipes = reactiveRecipeRepository.findRecipesByIds(recipeIds)
+                            .map(recipeMapper::toGeneratedRecipe);
+                    if (request.headers().accept().contains(MediaType.APPLICATION_NDJSON)) {
+                        return ServerResponse.ok()
+                                .contentType(MediaType.APPLICATION_NDJSON)
+                                .body(generatedRecipes, GeneratedRecipe.class);
+                    }
+                    return generatedRecipes.collectList()
+                            .flatMap(recipes -> ServerResponse.ok()
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .bodyValue(GeneratedRecipes.builder().generatedRecipes(recipes).build()));
+                })
+                .onErrorResume(BusinessServiceException.class, ReactiveRecipesHandler::toProblem);
+    }
+
+    // A 304 when the current version of the recipe matches If-None-Match, empty otherwise
+    private Mono<ServerResponse> getNotModified(final ServerRequest request, final Long recipeId) {
+        if (request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            return Mono.empty();
+        }
+        return reactiveRecipeRepository.findVersionById(recipeId)
+                .map(ETagHelper::toETag)
+                .filter(eTag -> isNotModified(request, eTag))
+                .flatMap(eTag -> ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build());
+    }
+
+    private static boolean isNotModified(final ServerRequest request, final String eTag) {
+        val ifNoneMatch = request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH);
+        return ifNoneMatch != null && ETagHelper.matchesWeakly(ifNoneMatch, eTag);
+    }
+
+    // Parameters are not bound by the generated API here, so a malformed value is answered with 400 alike
+    private static Long getRecipeId(final ServerRequest request) {
+        val recipeId = request.pathVariable(RECIPE_ID);
+        try {
+            return Long.valueOf(recipeId);
+        } catch (NumberFormatException exception) {
+            throw ExceptionHandler.createBusinessServiceException(HttpStatus.BAD_REQUEST,
+                    String.format(INVALID_PARAMETER, recipeId, RECIPE_ID));
+        }
+    }
+
+    private static Integer getLimit(final ServerRequest request) {
+        val limit = request.queryParam(LIMIT);
+        try {
+            return limit.map(Integer::valueOf).orElse(null);
+        } catch (NumberFormatException exception) {
+            throw ExceptionHandler.createBusinessServiceException(HttpStatus.BAD_REQUEST,
+                    String.format(INVALID_PARAMETER, limit.get(), LIMIT));
+        }
+    }
+
+    // Same body as RestResponseExceptionHandler.handleBusinessServiceException
+    private static Mono<ServerResponse> toProblem(final BusinessServiceException businessServiceException) {
+        return ServerResponse.status(businessServiceException.getHttpStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Problem.builder()
+                        .code(businessServiceException.getHttpStatus().toString())
+                        .message(businessServiceException.getMessage())
+                        .build());
+    }
+}
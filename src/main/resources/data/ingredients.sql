@@ -1,10 +0,0 @@
-INSERT INTO ingredients (names)
-VALUES
-('egg'),
-('vegetable oil'),
-('salt'),
-('sugar'),
-('chocolate'),
-('vanilla extract'),
-('flour'),
-('salmon');
\ No newline at end of file
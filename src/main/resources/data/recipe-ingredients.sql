@@ -1,11 +0,0 @@
-INSERT INTO recipe_ingredients (recipe_id, ingredient_id, amount, measures)
-VALUES
-(1, 1, 3, null),
-(1, 2, 200, 'ml'),
-(1, 4, 3, 'tablespoon'),
-(2, 2, 300, 'ml'),
-(2, 3, 3, 'teaspoon'),
-(3, 1, 2, null),
-(4, 7, 300, 'gram'),
-(4, 2, 300, 'ml'),
-(4, 3, 3, 'teaspoon');
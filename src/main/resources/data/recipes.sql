@@ -1,29 +0,0 @@
-INSERT INTO recipes (names, descriptions, instructions, images, created_at, is_vegetarian, number_of_servings)
-VALUES
-('Carrot cake',
-'Carrot Cake is one of those classic recipes that works so well for any celebration.',
-'Heat oven to 350°F. Bake for 25-30 mins','carrot-cake.jpg',
-'2022-07-24', 'true', 3);
-
-INSERT INTO recipes (names, descriptions, instructions, images, created_at, is_vegetarian, number_of_servings)
-VALUES
-('4 Cheese pizza',
-'Yummy pizza with extra cheese',
-'Add eggs, flour, to an oven. Bake at 200 for 1 hour',
-'pizza.jpg', '2022-07-24', 'false', 2);
-
-
-INSERT INTO recipes (names, descriptions, instructions, images, created_at, is_vegetarian, number_of_servings)
-VALUES
-('Thai green curry', 'Hot and spicy',
-'Stir chicken and vegetables in a pan for 20 min',
-'green-curry.jpg', '2022-07-24', 'false', 5);
-
-INSERT INTO recipes (names, descriptions, instructions, images, created_at, is_vegetarian, number_of_servings)
-VALUES
-('Margaritta pizza',
-'Yummy pizza with mazarella, cheese, tomato and basilicum',
-'Add eggs, flour, to an oven. Bake at 200 for 1 hour',
-'pizza.jpg', '2022-07-24', 'true', 2);
-
-
@@ -0,0 +1,44 @@
+package com.cookbook.recipes.domain.cache;
+
+import com.cookbook.recipes.domain.events.RecipeChangedEvent;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static com.cookbook.recipes.config.CachingConfig.RECIPES_CACHE;
+import static com.cookbook.recipes.util.TestDataFactory.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeCacheTest {
+
+    private final RecipeCache recipeCache = new RecipeCache(new ConcurrentMapCacheManager(RECIPES_CACHE));
+
+    @Test
+    void get() {
+        val generatedRecipe = getGeneratedRecipe();
+        recipeCache.put(RECIPE_ID_1, generatedRecipe, recipeCache.stamp(RECIPE_ID_1));
+
+        assertThat(recipeCache.get(RECIPE_ID_1)).containsSame(generatedRecipe);
+    }
+
+    @Test
+    void get_recipeChanged() {
+        recipeCache.put(RECIPE_ID_1, getGeneratedRecipe(), recipeCache.stamp(RECIPE_ID_1));
+        recipeCache.put(RECIPE_ID_2, getGeneratedRecipe(), recipeCache.stamp(RECIPE_ID_2));
+
+        recipeCache.onRecipeChanged(new RecipeChangedEvent(RECIPE_ID_1));
+
+        assertThat(recipeCache.get(RECIPE_ID_1)).isEmpty();
+        assertThat(recipeCache.get(RECIPE_ID_2)).isPresent();
+    }
+
+    @Test
+    void put_recipeChangedWhileRead() {
+        // The recipe is read before the change is committed and put after its eviction
+        val stamp = recipeCache.stamp(RECIPE_ID_1);
+        recipeCache.onRecipeChanged(new RecipeChangedEvent(RECIPE_ID_1));
+        recipeCache.put(RECIPE_ID_1, getGeneratedRecipe(), stamp);
+
+        assertThat(recipeCache.get(RECIPE_ID_1)).isEmpty();
+    }
+}
@@ -0,0 +1,37 @@
+package com.cookbook.recipes.domain.cache;
+
+import com.cookbook.recipes.domain.events.RecipeChangedEvent;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import static com.cookbook.recipes.util.TestDataFactory.RECIPE_ID_1;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeChangeCounterTest {
+
+    private final RecipeChangeCounter recipeChangeCounter = new RecipeChangeCounter();
+
+    @Test
+    void eTag() {
+        assertThat(recipeChangeCounter.eTag()).matches("\"\\d+-0\"");
+        assertThat(recipeChangeCounter.eTag()).isEqualTo(recipeChangeCounter.eTag());
+    }
+
+    @Test
+    void eTag_recipeChanged() {
+        val eTag = recipeChangeCounter.eTag();
+
+        recipeChangeCounter.onRecipeChanged(new RecipeChangedEvent(RECIPE_ID_1));
+
+        assertThat(recipeChangeCounter.eTag()).isNotEqualTo(eTag).endsWith("-1\"");
+    }
+
+    @Test
+    void eTag_dataLoaded() {
+        val eTag = recipeChangeCounter.eTag();
+
+        recipeChangeCounter.onDataLoaded();
+
+        assertThat(recipeChangeCounter.eTag()).isNotEqualTo(eTag);
+    }
+}
@@ -0,0 +1,88 @@
+package com.cookbook.recipes.domain.cache;
+
+import com.cookbook.recipes.domain.events.RecipeChangedEvent;
+import com.cookbook.recipes.model.FilterExpression;
+import com.cookbook.recipes.model.FilterOperator;
+import com.cookbook.recipes.model.FilterValues;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.cookbook.recipes.config.CachingConfig.SEARCH_RESULTS_CACHE;
+import static com.cookbook.recipes.util.TestDataFactory.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultCacheTest {
+
+    private final SearchResultCache searchResultCache =
+            new SearchResultCache(new ConcurrentMapCacheManager(SEARCH_RESULTS_CACHE));
+
+    @Test
+    void get() {
+        val searchKey = searchResultCache.keyOf(getIngredientExpression(SET_OF_INGREDIENT_NAMES));
+        searchResultCache.put(searchKey, List.of(RECIPE_ID_1, RECIPE_ID_2));
+
+        assertThat(searchResultCache.get(searchKey)).contains(List.of(RECIPE_ID_1, RECIPE_ID_2));
+    }
+
+    @Test
+    void get_recipeChanged() {
+        val searchKey = searchResultCache.keyOf(getIngredientExpression(SET_OF_INGREDIENT_NAMES));
+        searchResultCache.put(searchKey, List.of(RECIPE_ID_1));
+
+        searchResultCache.onRecipeChanged(new RecipeChangedEvent(RECIPE_ID_2));
+        val nextSearchKey = searchResultCache.keyOf(getIngredientExpression(SET_OF_INGREDIENT_NAMES));
+
+        assertThat(nextSearchKey).isNotEqualTo(searchKey);
+        assertThat(searchResultCache.get(nextSearchKey)).isEmpty();
+    }
+
+    @Test
+    void keyOf_ingredientOrderIsIgnored() {
+        val ingredients = new LinkedHashSet<>(List.of("sugar", "egg"));
+
+        assertThat(searchResultCache.keyOf(getIngredientExpression(ingredients)))
+                .isEqualTo(searchResultCache.keyOf(getIngredientExpression(Set.of("egg", "sugar"))));
+    }
+
+    @Test
+    void keyOf_instructionCaseIsIgnored() {
+        assertThat(searchResultCache.keyOf(getInstructionExpression(INSTRUCTION_TEXT)))
+                .isEqualTo(searchResultCache.keyOf(getInstructionExpression(INSTRUCTION_TEXT.toLowerCase())));
+    }
+
+    @Test
+    void keyOf_operandOrderIsIgnored() {
+        val ingredientExpression = getIngredientExpression(SET_OF_INGREDIENT_NAMES);
+        val instructionExpression = getInstructionExpression(INSTRUCTION_TEXT);
+
+        assertThat(searchResultCache.keyOf(getAndExpression(ingredientExpression, instructionExpression)))
+                .isEqualTo(searchResultCache.keyOf(getAndExpression(instructionExpression, ingredientExpression)));
+    }
+
+    @Test
+    void keyOf_valuesCannotImitateOperands() {
+        val andExpression = getAndExpression(
+                getInstructionExpression("bake"),
+                getFilterExpression(FilterOperator.IS_VEGETARIAN, FilterValues.builder().isVegetarian(true).build()));
+        val imitatingExpression = getAndExpression(getInstructionExpression("bake],IS_VEGETARIAN[true"));
+
+        assertThat(searchResultCache.keyOf(andExpression)).isNotEqualTo(searchResultCache.keyOf(imitatingExpression));
+    }
+
+    private FilterExpression getIngredientExpression(final Set<String> ingredients) {
+        return getFilterExpression(FilterOperator.INCL_INGREDIENTS, FilterValues.builder().ingredients(ingredients).build());
+    }
+
+    private FilterExpression getInstructionExpression(final String instruction) {
+        return getFilterExpression(FilterOperator.INSTRUCTION, FilterValues.builder().instruction(instruction).build());
+    }
+
+    private FilterExpression getAndExpression(final FilterExpression... operands) {
+        return FilterExpression.builder().operator(FilterOperator.AND).operands(List.of(operands)).build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.cookbook.recipes.domain.index;
+
+import com.cookbook.recipes.repository.IngredientRepository;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.cookbook.recipes.util.TestDataFactory.SET_OF_INGREDIENT_NAMES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Ingredients are inserted in their own transactions, so the test does not run in a rolled back one
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IngredientDictionaryTest {
+
+    private static final String NEW_INGREDIENT_NAME = "saffron";
+    private static final int WRITERS = 8;
+
+    private final IngredientRepository ingredientRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final IngredientDictionary ingredientDictionary;
+
+    @Autowired
+    public IngredientDictionaryTest(IngredientRepository ingredientRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.ingredientRepository = ingredientRepository;
+        this.transactionManager = transactionManager;
+        this.ingredientDictionary = new IngredientDictionary(ingredientRepository, transactionManager);
+    }
+
+    @BeforeEach
+    void setUp() {
+        ingredientDictionary.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ingredientRepository.deleteAll(ingredientRepository.findAllByNameIn(Set.of(NEW_INGREDIENT_NAME)));
+    }
+
+    @Test
+    void resolve() {
+        val ingredientsActual = ingredientDictionary.resolve(SET_OF_INGREDIENT_NAMES);
+
+        assertThat(ingredientsActual).containsOnlyKeys(SET_OF_INGREDIENT_NAMES);
+        // Known ingredients are references, nothing is read from the database
+        assertThat(ingredientsActual.values()).noneMatch(Hibernate::isInitialized);
+        assertThat(ingredientsActual.get("egg").getId())
+                .isEqualTo(ingredientRepository.findByName("egg").orElseThrow().getId());
+    }
+
+    @Test
+    void resolve_ingredientDoesNotExist() {
+        val ingredientsActual = ingredientDictionary.resolve(Set.of("egg", NEW_INGREDIENT_NAME));
+
+        assertThat(ingredientsActual).containsOnlyKeys("egg", NEW_INGREDIENT_NAME);
+        assertThat(ingredientsActual.get(NEW_INGREDIENT_NAME).getId())
+                .isEqualTo(ingredientRepository.findByName(NEW_INGREDIENT_NAME).orElseThrow().getId());
+    }
+
+    @Test
+    void resolve_insideTransaction() {
+        // A write inserts its missing ingredients before its transaction, see insertMissing
+        val exception = assertThrows(IllegalStateException.class, () -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> ingredientDictionary.resolve(Set.of(NEW_INGREDIENT_NAME))));
+
+        assertThat(exception.getMessage())
+                .isEqualTo("Ingredient saffron has to be inserted before the transaction of the write starts");
+        assertThat(ingredientRepository.findByName(NEW_INGREDIENT_NAME)).isEmpty();
+    }
+
+    @Test
+    @SneakyThrows
+    void resolve_concurrentWriters() {
+        // Every writer has its own dictionary, like separate instances of the application
+        val executorService = Executors.newFixedThreadPool(WRITERS);
+        val start = new CountDownLatch(1);
+        val writers = IntStream.range(0, WRITERS)
+                .mapToObj(writer -> new IngredientDictionary(ingredientRepository, transactionManager))
+                .map(dictionary -> (Callable<Long>) () -> {
+                    start.await();
+                    return dictionary.resolve(Set.of(NEW_INGREDIENT_NAME)).get(NEW_INGREDIENT_NAME).getId();
+                })
+                .map(executorService::submit)
+                .collect(Collectors.toList());
+
+        start.countDown();
+        val ingredientIds = writers.stream()
+                .map(this::getQuietly)
+                .collect(Collectors.toSet());
+        executorService.shutdown();
+
+        assertThat(ingredientIds).hasSize(1);
+        assertThat(ingredientRepository.findAllByNameIn(Set.of(NEW_INGREDIENT_NAME))).hasSize(1);
+    }
+
+    @SneakyThrows
+    private Long getQuietly(final Future<Long> future) {
+        return future.get();
+    }
+}
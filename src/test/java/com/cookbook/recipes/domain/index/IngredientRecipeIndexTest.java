@@ -0,0 +1,147 @@
+package com.cookbook.recipes.domain.index;
+
+import com.cookbook.recipes.domain.events.RecipeChangedEvent;
+import com.cookbook.recipes.model.FilterExpression;
+import com.cookbook.recipes.model.FilterOperator;
+import com.cookbook.recipes.model.FilterValues;
+import com.cookbook.recipes.repository.RecipeIngredientRepository;
+import com.cookbook.recipes.repository.RecipeRepository;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.cookbook.recipes.util.TestDataFactory.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class IngredientRecipeIndexTest {
+
+    private final RecipeRepository recipeRepository;
+    private final RecipeIngredientRepository recipeIngredientRepository;
+    private final IngredientRecipeIndex ingredientRecipeIndex;
+
+    @Autowired
+    public IngredientRecipeIndexTest(RecipeRepository recipeRepository,
+                                     RecipeIngredientRepository recipeIngredientRepository) {
+        this.recipeRepository = recipeRepository;
+        this.recipeIngredientRepository = recipeIngredientRepository;
+        this.ingredientRecipeIndex = new IngredientRecipeIndex(recipeRepository, recipeIngredientRepository);
+    }
+
+    @BeforeEach
+    void setUp() {
+        ingredientRecipeIndex.load();
+    }
+
+    @Test
+    void findRecipeIds_inclIngredients() {
+        val recipeIdsActual = ingredientRecipeIndex.findRecipeIds(
+                getIngredientExpression(FilterOperator.INCL_INGREDIENTS, SET_OF_INGREDIENT_NAMES));
+
+        assertThat(recipeIdsActual).contains(List.of(RECIPE_ID_1, 3L));
+    }
+
+    @Test
+    void findRecipeIds_exclIngredients() {
+        val recipeIdsActual = ingredientRecipeIndex.findRecipeIds(
+                getIngredientExpression(FilterOperator.EXCL_INGREDIENTS, SET_OF_INGREDIENT_NAMES));
+
+        assertThat(recipeIdsActual).contains(List.of(RECIPE_ID_2, 4L));
+    }
+
+    @Test
+    void findRecipeIds_andNot() {
+        val filterExpression = FilterExpression.builder()
+                .operator(FilterOperator.AND)
+                .operands(List.of(
+                        getIngredientExpression(FilterOperator.INCL_INGREDIENTS, Set.of("vegetable oil")),
+                        FilterExpression.builder()
+                                .operator(FilterOperator.NOT)
+                                .operands(List.of(getIngredientExpression(
+                                        FilterOperator.INCL_INGREDIENTS, Set.of("salt"))))
+                                .build()))
+                .build();
+
+        val recipeIdsActual = ingredientRecipeIndex.findRecipeIds(filterExpression);
+
+        assertThat(recipeIdsActual).contains(List.of(RECIPE_ID_1));
+    }
+
+    @Test
+    void findRecipeIds_ingredientIsUnknown() {
+        val recipeIdsActual = ingredientRecipeIndex.findRecipeIds(
+                getIngredientExpression(FilterOperator.INCL_INGREDIENTS, Set.of("unknown")));
+
+        assertThat(recipeIdsActual).contains(List.of());
+    }
+
+    @Test
+    void findRecipeIds_notOnlyIngredients() {
+        val filterExpression = FilterExpression.builder()
+                .operator(FilterOperator.OR)
+                .operands(List.of(
+                        getIngredientExpression(FilterOperator.INCL_INGREDIENTS, SET_OF_INGREDIENT_NAMES),
+                        getFilterExpression(FilterOperator.IS_VEGETARIAN,
+                                FilterValues.builder().isVegetarian(IS_VEGETARIAN).build())))
+                .build();
+
+        val recipeIdsActual = ingredientRecipeIndex.findRecipeIds(filterExpression);
+
+        assertThat(recipeIdsActual).isEmpty();
+    }
+
+    @Test
+    void onRecipeChanged_recipeIsDeleted() {
+        recipeRepository.deleteById(RECIPE_ID_1);
+
+        ingredientRecipeIndex.onRecipeChanged(new RecipeChangedEvent(RECIPE_ID_1));
+        val recipeIdsActual = ingredientRecipeIndex.findRecipeIds(
+                getIngredientExpression(FilterOperator.EXCL_INGREDIENTS, Set.of("salt")));
+
+        assertThat(recipeIdsActual).contains(List.of(3L));
+    }
+
+    @Test
+    void onRecipeChanged_ingredientsAreRemoved() {
+        recipeIngredientRepository.deleteAll(recipeIngredientRepository.findAll()
+                .stream()
+                .filter(recipeIngredient -> recipeIngredient.getRecipe().getId().equals(RECIPE_ID_1))
+                .collect(Collectors.toList()));
+        recipeIngredientRepository.flush();
+
+        ingredientRecipeIndex.onRecipeChanged(new RecipeChangedEvent(RECIPE_ID_1));
+        val inclRecipeIdsActual = ingredientRecipeIndex.findRecipeIds(
+                getIngredientExpression(FilterOperator.INCL_INGREDIENTS, SET_OF_INGREDIENT_NAMES));
+        val exclRecipeIdsActual = ingredientRecipeIndex.findRecipeIds(
+                getIngredientExpression(FilterOperator.EXCL_INGREDIENTS, SET_OF_INGREDIENT_NAMES));
+
+        assertThat(inclRecipeIdsActual).contains(List.of(3L));
+        assertThat(exclRecipeIdsActual).contains(List.of(RECIPE_ID_1, RECIPE_ID_2, 4L));
+    }
+
+    @Test
+    void onRecipeChanged_severalRecipes() {
+        recipeRepository.deleteAllById(List.of(RECIPE_ID_1, 3L));
+        recipeRepository.flush();
+
+        ingredientRecipeIndex.onRecipeChanged(new RecipeChangedEvent(List.of(RECIPE_ID_1, RECIPE_ID_2, 3L)));
+        val inclRecipeIdsActual = ingredientRecipeIndex.findRecipeIds(
+                getIngredientExpression(FilterOperator.INCL_INGREDIENTS, SET_OF_INGREDIENT_NAMES));
+        val exclRecipeIdsActual = ingredientRecipeIndex.findRecipeIds(
+                getIngredientExpression(FilterOperator.EXCL_INGREDIENTS, SET_OF_INGREDIENT_NAMES));
+
+        assertThat(inclRecipeIdsActual).contains(List.of());
+        assertThat(exclRecipeIdsActual).contains(List.of(RECIPE_ID_2, 4L));
+    }
+
+    private FilterExpression getIngredientExpression(final FilterOperator filterOperator,
+                                                     final Set<String> ingredients) {
+        return getFilterExpression(filterOperator, FilterValues.builder().ingredients(ingredients).build());
+    }
+}
@@ -0,0 +1,88 @@
+package com.cookbook.recipes.domain.index;
+
+import com.cookbook.recipes.domain.events.RecipeChangedEvent;
+import com.cookbook.recipes.model.FilterExpression;
+import com.cookbook.recipes.model.FilterOperator;
+import com.cookbook.recipes.model.FilterValues;
+import com.cookbook.recipes.repository.RecipeRepository;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+
+import static com.cookbook.recipes.util.TestDataFactory.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class RecipeTextIndexTest {
+
+    private final RecipeRepository recipeRepository;
+    private final RecipeTextIndex recipeTextIndex;
+
+    @Autowired
+    public RecipeTextIndexTest(RecipeRepository recipeRepository) {
+        this.recipeRepository = recipeRepository;
+        this.recipeTextIndex = new RecipeTextIndex(recipeRepository);
+    }
+
+    @BeforeEach
+    void setUp() {
+        recipeTextIndex.load();
+    }
+
+    @Test
+    void search() {
+        val recipeIdsActual = recipeTextIndex.search(getInstructionExpression(INSTRUCTION_TEXT));
+
+        assertThat(recipeIdsActual.orElseThrow()).containsExactlyInAnyOrder(RECIPE_ID_2, 4L);
+    }
+
+    @Test
+    void search_rankedByRelevance() {
+        // Recipe 2 has cheese in its name and description, recipe 4 only in its description
+        val recipeIdsActual = recipeTextIndex.search(getInstructionExpression("Cheese"));
+
+        assertThat(recipeIdsActual).contains(List.of(RECIPE_ID_2, 4L));
+    }
+
+    @Test
+    void search_lastTermIsPrefix() {
+        val recipeIdsActual = recipeTextIndex.search(getInstructionExpression("oven bak"));
+
+        assertThat(recipeIdsActual.orElseThrow()).containsExactlyInAnyOrder(RECIPE_ID_1, RECIPE_ID_2, 4L);
+    }
+
+    @Test
+    void search_noRecipeMatches() {
+        val recipeIdsActual = recipeTextIndex.search(getInstructionExpression("bake chicken"));
+
+        assertThat(recipeIdsActual).contains(List.of());
+    }
+
+    @Test
+    void search_notInstructionExpression() {
+        val recipeIdsActual = recipeTextIndex.search(getFilterExpression(FilterOperator.IS_VEGETARIAN,
+                FilterValues.builder().isVegetarian(IS_VEGETARIAN).build()));
+
+        assertThat(recipeIdsActual).isEmpty();
+    }
+
+    @Test
+    void onRecipeChanged() {
+        val recipe = recipeRepository.getRecipeById(3L).orElseThrow();
+        recipe.setInstruction("Bake the curry at 200 for 20 min");
+        recipeRepository.flush();
+
+        recipeTextIndex.onRecipeChanged(new RecipeChangedEvent(3L));
+        val recipeIdsActual = recipeTextIndex.search(getInstructionExpression("curry bake"));
+
+        assertThat(recipeIdsActual).contains(List.of(3L));
+    }
+
+    private FilterExpression getInstructionExpression(final String instruction) {
+        return getFilterExpression(FilterOperator.INSTRUCTION, FilterValues.builder().instruction(instruction).build());
+    }
+}
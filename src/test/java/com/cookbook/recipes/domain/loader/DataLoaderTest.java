@@ -0,0 +1,108 @@
+package com.cookbook.recipes.domain.loader;
+
+import com.cookbook.recipes.config.DataLoaderProperties;
+import com.cookbook.recipes.repository.IngredientRepository;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Rows are committed by the loader, so the test does not run in a rolled back transaction
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DataLoaderTest {
+
+    private static final Set<String> LOADED_INGREDIENT_NAMES = Set.of("saffron", "cumin", "basil");
+
+    private final IngredientRepository ingredientRepository;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public DataLoaderTest(IngredientRepository ingredientRepository, DataSource dataSource,
+                          JdbcTemplate jdbcTemplate) {
+        this.ingredientRepository = ingredientRepository;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @AfterEach
+    void tearDown() {
+        ingredientRepository.deleteAll(ingredientRepository.findAllByNameIn(LOADED_INGREDIENT_NAMES));
+    }
+
+    @Test
+    void load() {
+        val dataLoader = getDataLoader("{\"id\": 100, \"names\": \"saffron\"}\n"
+                + "{\"id\": 101, \"names\": \"cumin\", \"origin\": {\"country\": \"India\"}}\n"
+                + "{\"id\": 102, \"names\": \"basil\"}\n");
+
+        val loadReportsActual = dataLoader.load();
+
+        assertThat(loadReportsActual).singleElement()
+                .satisfies(loadReport -> {
+                    assertThat(loadReport.getTable()).isEqualTo("ingredients");
+                    assertThat(loadReport.getRows()).isEqualTo(3);
+                    assertThat(loadReport.getInsertedRows()).isEqualTo(3);
+                });
+        assertThat(ingredientRepository.findByName("cumin").orElseThrow().getId()).isEqualTo(101L);
+        // The sequence continues after the loaded ids
+        assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR ingredients_seq", Long.class))
+                .isGreaterThan(102L);
+    }
+
+    @Test
+    void load_repeated() {
+        val dataLoader = getDataLoader("{\"id\": 100, \"names\": \"saffron\"}\n{\"id\": 101, \"names\": \"cumin\"}\n");
+        dataLoader.load();
+        jdbcTemplate.update("UPDATE ingredients SET names = 'basil' WHERE id = 101");
+
+        val loadReportsActual = dataLoader.load();
+
+        // Existing rows are skipped, not inserted again or overwritten
+        assertThat(loadReportsActual).singleElement()
+                .satisfies(loadReport -> {
+                    assertThat(loadReport.getRows()).isEqualTo(2);
+                    assertThat(loadReport.getInsertedRows()).isZero();
+                });
+        assertThat(ingredientRepository.findByName("basil").orElseThrow().getId()).isEqualTo(101L);
+        assertThat(ingredientRepository.findByName("cumin")).isEmpty();
+    }
+
+    @Test
+    void load_lineIsMalformed() {
+        val dataLoader = getDataLoader("{\"id\": 100, \"names\": \"saffron\"}\n{\"id\": 101, \"names\": \n");
+
+        assertThatThrownBy(dataLoader::load)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("at line 2");
+    }
+
+    private DataLoader getDataLoader(final String ndjson) {
+        val dataFile = new DataLoaderProperties.DataFile();
+        dataFile.setTable("ingredients");
+        dataFile.setSequence("ingredients_seq");
+        dataFile.setColumns(List.of("id", "names"));
+        dataFile.setLocation(new ByteArrayResource(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        val dataLoaderProperties = new DataLoaderProperties();
+        // Batches and commits are smaller than the file
+        dataLoaderProperties.setBatchSize(2);
+        dataLoaderProperties.setCommitInterval(2);
+        dataLoaderProperties.setFiles(List.of(dataFile));
+        return new DataLoader(dataSource, dataLoaderProperties);
+    }
+}
@@ -0,0 +1,68 @@
+package com.cookbook.recipes.domain.metrics;
+
+import com.cookbook.recipes.config.MetricsConfig;
+import com.cookbook.recipes.repository.RecipeRepository;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import javax.persistence.EntityManager;
+
+import static com.cookbook.recipes.util.TestDataFactory.RECIPE_ID_1;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(MetricsConfig.class)
+class QueryStatisticsTest {
+
+    // The recipe, its 3 recipe ingredients and their 3 ingredients
+    private static final long RECIPE_ENTITIES = 7L;
+
+    private final RecipeRepository recipeRepository;
+    private final EntityManager entityManager;
+
+    @Autowired
+    public QueryStatisticsTest(RecipeRepository recipeRepository, EntityManager entityManager) {
+        this.recipeRepository = recipeRepository;
+        this.entityManager = entityManager;
+    }
+
+    @Test
+    void snapshot() {
+        entityManager.clear();
+        val start = QueryStatistics.snapshot();
+
+        recipeRepository.getRecipeById(RECIPE_ID_1).orElseThrow();
+
+        val queryStatisticsActual = QueryStatistics.snapshot().since(start);
+        assertThat(queryStatisticsActual.getStatements()).isEqualTo(1L);
+        assertThat(queryStatisticsActual.getEntitiesLoaded()).isEqualTo(RECIPE_ENTITIES);
+    }
+
+    @Test
+    void snapshot_scalarQuery() {
+        val start = QueryStatistics.snapshot();
+
+        recipeRepository.findVersionById(RECIPE_ID_1);
+
+        val queryStatisticsActual = QueryStatistics.snapshot().since(start);
+        assertThat(queryStatisticsActual.getStatements()).isEqualTo(1L);
+        assertThat(queryStatisticsActual.getEntitiesLoaded()).isZero();
+    }
+
+    @Test
+    void snapshot_otherThread() throws InterruptedException {
+        val start = QueryStatistics.snapshot();
+
+        // Statements of another thread belong to the call running there
+        val thread = new Thread(() -> recipeRepository.getRecipeById(RECIPE_ID_1));
+        thread.start();
+        thread.join();
+
+        val queryStatisticsActual = QueryStatistics.snapshot().since(start);
+        assertThat(queryStatisticsActual.getStatements()).isZero();
+        assertThat(queryStatisticsActual.getEntitiesLoaded()).isZero();
+    }
+}
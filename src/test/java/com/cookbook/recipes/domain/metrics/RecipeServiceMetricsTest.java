@@ -0,0 +1,91 @@
+package com.cookbook.recipes.domain.metrics;
+
+import com.cookbook.recipes.domain.exception.BusinessServiceException;
+import com.cookbook.recipes.domain.services.RecipeService;
+import com.cookbook.recipes.model.GeneratedFilterCriteria;
+import com.cookbook.recipes.model.GeneratedFilterExpression;
+import com.cookbook.recipes.model.GeneratedFilterValues;
+import com.cookbook.recipes.model.GeneratedSearchFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+import static com.cookbook.recipes.domain.metrics.RecipeServiceMetrics.*;
+import static com.cookbook.recipes.util.TestDataFactory.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecipeServiceMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RecipeService recipeServiceMock = mock(RecipeService.class);
+    private RecipeService recipeService;
+
+    @BeforeEach
+    void setUp() {
+        val proxyFactory = new AspectJProxyFactory(recipeServiceMock);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new RecipeServiceMetrics(meterRegistry));
+        recipeService = proxyFactory.getProxy();
+    }
+
+    @Test
+    void record_postRecipesBySearchFilter() {
+        val generatedSearchFilter = getGeneratedSearchFilter(GeneratedFilterCriteria.IS_VEGETARIAN,
+                GeneratedFilterValues.builder().isVegetarian(IS_VEGETARIAN).build());
+
+        when(recipeServiceMock.postRecipesBySearchFilter(any()))
+                .thenReturn(List.of(getGeneratedRecipe(), getGeneratedRecipe()));
+
+        recipeService.postRecipesBySearchFilter(generatedSearchFilter);
+
+        val timer = meterRegistry.get(OPERATION_TIMER)
+                .tag(OPERATION_TAG, "postRecipesBySearchFilter")
+                .tag(CRITERIA_TAG, "is_vegetarian")
+                .tag(EXCEPTION_TAG, "none")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1L);
+        assertThat(meterRegistry.get(RESULTS_SUMMARY).tag(CRITERIA_TAG, "is_vegetarian").summary().totalAmount())
+                .isEqualTo(2.0);
+        assertThat(meterRegistry.get(STATEMENTS_SUMMARY).tag(CRITERIA_TAG, "is_vegetarian").summary().count())
+                .isEqualTo(1L);
+    }
+
+    @Test
+    void record_filterExpression() {
+        val generatedSearchFilter = GeneratedSearchFilter.builder()
+                .filterCriteria(GeneratedFilterCriteria.IS_VEGETARIAN)
+                .filterExpression(GeneratedFilterExpression.builder().build())
+                .build();
+
+        recipeService.postRecipesBySearchFilter(generatedSearchFilter);
+
+        assertThat(meterRegistry.get(OPERATION_TIMER).tag(CRITERIA_TAG, "expression").timer().count())
+                .isEqualTo(1L);
+    }
+
+    @Test
+    void record_exception() {
+        when(recipeServiceMock.getRecipeById(RECIPE_ID_1))
+                .thenThrow(new BusinessServiceException(HttpStatus.NOT_FOUND, "Recipe does not exist"));
+
+        assertThrows(BusinessServiceException.class, () -> recipeService.getRecipeById(RECIPE_ID_1));
+
+        val timer = meterRegistry.get(OPERATION_TIMER)
+                .tag(OPERATION_TAG, "getRecipeById")
+                .tag(CRITERIA_TAG, "none")
+                .tag(EXCEPTION_TAG, "BusinessServiceException")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1L);
+        // Nothing is returned, so no results are recorded
+        assertThat(meterRegistry.find(RESULTS_SUMMARY).summary()).isNull();
+    }
+}
@@ -0,0 +1,103 @@
+package com.cookbook.recipes.domain.services;
+
+import com.cookbook.recipes.domain.events.RecipeChangedEvent;
+import com.cookbook.recipes.domain.index.IngredientDictionary;
+import com.cookbook.recipes.mapper.RecipeMapperImpl;
+import com.cookbook.recipes.model.GeneratedRecipeBatchResult;
+import com.cookbook.recipes.repository.IngredientRepository;
+import com.cookbook.recipes.repository.RecipeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static com.cookbook.recipes.util.TestDataFactory.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+class RecipeBatchServiceTest {
+
+    private final RecipeRepository recipeRepository;
+    private final IngredientDictionary ingredientDictionary;
+    private final ApplicationEventPublisher applicationEventPublisher = mock(ApplicationEventPublisher.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final RecipeBatchService recipeBatchService;
+
+    @Autowired
+    public RecipeBatchServiceTest(RecipeRepository recipeRepository,
+                                  IngredientRepository ingredientRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  EntityManager entityManager) {
+        this.recipeRepository = recipeRepository;
+        this.ingredientDictionary = new IngredientDictionary(ingredientRepository, transactionManager);
+        this.recipeBatchService = new RecipeBatchService(new RecipeMapperImpl(), ingredientDictionary,
+                transactionManager, applicationEventPublisher, objectMapper, entityManager);
+    }
+
+    @BeforeEach
+    void setUp() {
+        ingredientDictionary.load();
+    }
+
+    @Test
+    void createRecipes() {
+        val generatedRecipeWithoutName = getGeneratedRecipe();
+        generatedRecipeWithoutName.setName(null);
+
+        val batchResultsActual = recipeBatchService.createRecipes(
+                List.of(getGeneratedRecipe(), generatedRecipeWithoutName, getGeneratedRecipe()));
+
+        assertThat(batchResultsActual.getCreated()).isEqualTo(2);
+        assertThat(batchResultsActual.getFailed()).isEqualTo(1);
+        assertThat(batchResultsActual.getResults())
+                .extracting(GeneratedRecipeBatchResult::getIndex)
+                .containsExactly(0, 1, 2);
+        assertThat(batchResultsActual.getResults().get(1).getError()).isEqualTo(BATCH_ERROR);
+
+        // Ids of the request are ignored, every recipe gets a new one
+        val recipeId = batchResultsActual.getResults().get(0).getRecipeId();
+        assertThat(recipeId).isNotEqualTo(RECIPE_ID_1);
+        val recipeActual = recipeRepository.getRecipeById(recipeId).orElseThrow();
+        assertThat(recipeActual.getRecipeIngredients())
+                .singleElement()
+                .satisfies(recipeIngredient -> assertThat(recipeIngredient.getIngredient().getName())
+                        .isEqualTo(INGREDIENT_NAME));
+        // One event announces all recipes of the chunk
+        verify(applicationEventPublisher).publishEvent(new RecipeChangedEvent(List.of(
+                recipeId, batchResultsActual.getResults().get(2).getRecipeId())));
+    }
+
+    @Test
+    @SneakyThrows
+    void importRecipes_recipeIsMalformed() {
+        val ndjson = objectMapper.writeValueAsString(getGeneratedRecipe()) + "\n{\"name\": \n";
+
+        val batchResultsActual = recipeBatchService.importRecipes(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(batchResultsActual.getCreated()).isEqualTo(1);
+        assertThat(batchResultsActual.getFailed()).isEqualTo(1);
+        assertThat(batchResultsActual.getResults().get(1).getIndex()).isEqualTo(1);
+        assertThat(batchResultsActual.getResults().get(1).getError()).startsWith("Recipe could not be read: ");
+    }
+
+    @Test
+    @SneakyThrows
+    void importRecipes_noRecipes() {
+        val batchResultsActual = recipeBatchService.importRecipes(new ByteArrayInputStream(new byte[0]));
+
+        assertThat(batchResultsActual.getCreated()).isZero();
+        assertThat(batchResultsActual.getResults()).isEmpty();
+    }
+}
@@ -0,0 +1,100 @@
+package com.cookbook.recipes.domain.services;
+
+import com.cookbook.recipes.repository.IngredientRepository;
+import com.cookbook.recipes.repository.RecipeIngredientRepository;
+import com.cookbook.recipes.repository.RecipeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.cookbook.recipes.config.CachingConfig.RECIPES_CACHE;
+import static com.cookbook.recipes.util.TestDataFactory.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class RecipeServiceCacheTest {
+
+    @MockBean
+    private RecipeRepository recipeRepository;
+    @MockBean
+    private RecipeIngredientRepository recipeIngredientRepository;
+    @MockBean
+    private IngredientRepository ingredientRepository;
+
+    private final RecipeService recipeService;
+    private final Cache recipesCache;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public RecipeServiceCacheTest(RecipeService recipeService, CacheManager cacheManager,
+                                  MeterRegistry meterRegistry) {
+        this.recipeService = recipeService;
+        this.recipesCache = cacheManager.getCache(RECIPES_CACHE);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @BeforeEach
+    void setUp() {
+        recipesCache.clear();
+        when(recipeRepository.getRecipeById(RECIPE_ID_1)).thenReturn(Optional.of(getRecipe()));
+    }
+
+    @Test
+    void getRecipeById_isReadThrough() {
+        val hitsBefore = cacheGets("hit");
+
+        val generatedRecipe = recipeService.getRecipeById(RECIPE_ID_1);
+        val cachedGeneratedRecipe = recipeService.getRecipeById(RECIPE_ID_1);
+
+        verify(recipeRepository, times(1)).getRecipeById(RECIPE_ID_1);
+        assertThat(cachedGeneratedRecipe).isSameAs(generatedRecipe);
+        assertThat(cacheGets("hit") - hitsBefore).isEqualTo(1);
+    }
+
+    @Test
+    void updateRecipe_evictsRecipe() {
+        val recipe = getRecipe();
+        recipe.setRecipeIngredients(new HashSet<>());
+        when(recipeRepository.getRecipeById(RECIPE_ID_1)).thenReturn(Optional.of(recipe));
+        recipeService.getRecipeById(RECIPE_ID_1);
+
+        // Without recipe ingredients the version of the detached recipe is not incremented
+        val generatedRecipe = getGeneratedRecipe();
+        generatedRecipe.setRecipeIngredients(Set.of());
+
+        recipeService.updateRecipe(RECIPE_ID_1, generatedRecipe, null);
+
+        assertThat(recipesCache.get(RECIPE_ID_1)).isNull();
+    }
+
+    @Test
+    void deleteRecipe_evictsRecipe() {
+        when(recipeRepository.getRecipeById(RECIPE_ID_2)).thenReturn(Optional.of(getRecipe()));
+        recipeService.getRecipeById(RECIPE_ID_1);
+        recipeService.getRecipeById(RECIPE_ID_2);
+
+        recipeService.deleteRecipe(RECIPE_ID_1, null);
+
+        assertThat(recipesCache.get(RECIPE_ID_1)).isNull();
+        assertThat(recipesCache.get(RECIPE_ID_2)).isNotNull();
+    }
+
+    private double cacheGets(final String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", RECIPES_CACHE)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
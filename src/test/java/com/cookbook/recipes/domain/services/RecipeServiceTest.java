@@ -1,25 +1,51 @@
 package com.cookbook.recipes.domain.services;
 
+import com.cookbook.recipes.domain.cache.RecipeCache;
+import com.cookbook.recipes.domain.cache.RecipeChangeCounter;
+import com.cookbook.recipes.domain.cache.SearchResultCache;
+import com.cookbook.recipes.domain.events.RecipeChangedEvent;
 import com.cookbook.recipes.domain.exception.BusinessServiceException;
+import com.cookbook.recipes.domain.index.IngredientDictionary;
+import com.cookbook.recipes.domain.index.IngredientRecipeIndex;
+import com.cookbook.recipes.domain.index.RecipeTextIndex;
 import com.cookbook.recipes.mapper.RecipeMapper;
 import com.cookbook.recipes.mapper.SearchFilterMapper;
+import com.cookbook.recipes.mapper.utils.CursorHelper;
 import com.cookbook.recipes.model.*;
-import com.cookbook.recipes.repository.IngredientRepository;
 import com.cookbook.recipes.repository.RecipeIngredientRepository;
 import com.cookbook.recipes.repository.RecipeRepository;
+import com.cookbook.recipes.repository.spec.RecipeFilterCompiler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
 import lombok.val;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
-
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static com.cookbook.recipes.util.TestDataFactory.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -35,32 +61,118 @@ class RecipeServiceTest {
     @Mock
     private RecipeIngredientRepository recipeIngredientRepository;
     @Mock
-    private IngredientRepository ingredientRepository;
-    @Mock
     private RecipeMapper recipeMapper;
     @Mock
     private SearchFilterMapper searchFilterMapper;
+    @Spy
+    private RecipeFilterCompiler recipeFilterCompiler = new RecipeFilterCompiler();
+    @Mock
+    private IngredientRecipeIndex ingredientRecipeIndex;
+    @Mock
+    private RecipeTextIndex recipeTextIndex;
+    @Mock
+    private IngredientDictionary ingredientDictionary;
+    @Mock
+    private RecipeCache recipeCache;
+    @Mock
+    private SearchResultCache searchResultCache;
+    @Mock
+    private RecipeChangeCounter recipeChangeCounter;
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    @Mock
+    private EntityManager entityManager;
 
     @InjectMocks
     private RecipeService recipeService;
 
     @Captor
     private ArgumentCaptor<List<RecipeIngredient>> recipeIngredientArgumentCaptor;
+    @Captor
+    private ArgumentCaptor<GeneratedRecipe> generatedRecipeArgumentCaptor;
 
     @Test
     void getAllRecipes() {
         val recipe = getRecipe();
         val generatedRecipeExpected = getGeneratedRecipe();
-        when(recipeRepository.findAll()).thenReturn(List.of(recipe));
+        when(recipeRepository.findRecipeIdsAfter(0L, Pageable.ofSize(21))).thenReturn(List.of(RECIPE_ID_1));
+        when(recipeRepository.findByIdInOrderByIdAsc(List.of(RECIPE_ID_1))).thenReturn(List.of(recipe));
         when(recipeMapper.toGeneratedRecipe(any())).thenReturn(generatedRecipeExpected);
 
-        val generatedRecipesActual = recipeService.getAllRecipes();
+        val generatedRecipesActual = recipeService.getAllRecipes(null, null);
 
         // Verify in Mockito simply means that you want to check if a certain method of a mock object has been called
         // by specific number of times. When doing verification that a method was called exactly once
         verify(recipeMapper).toGeneratedRecipe(recipe);
-        assertThat(generatedRecipesActual.size()).isEqualTo(1);
-        assertThat(generatedRecipesActual.get(0)).isEqualTo(generatedRecipeExpected);
+        assertThat(generatedRecipesActual.getGeneratedRecipes().size()).isEqualTo(1);
+        assertThat(generatedRecipesActual.getGeneratedRecipes().get(0)).isEqualTo(generatedRecipeExpected);
+        assertThat(generatedRecipesActual.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getAllRecipes_hasNextPage() {
+        val recipe = getRecipe();
+        when(recipeRepository.findRecipeIdsAfter(0L, Pageable.ofSize(2))).thenReturn(List.of(RECIPE_ID_1, RECIPE_ID_2));
+        when(recipeRepository.findByIdInOrderByIdAsc(List.of(RECIPE_ID_1))).thenReturn(List.of(recipe));
+        when(recipeMapper.toGeneratedRecipe(any())).thenReturn(getGeneratedRecipe());
+
+        val generatedRecipesActual = recipeService.getAllRecipes(null, 1);
+
+        verify(recipeMapper, times(1)).toGeneratedRecipe(any());
+        assertThat(generatedRecipesActual.getGeneratedRecipes().size()).isEqualTo(1);
+        assertThat(generatedRecipesActual.getNextCursor()).isEqualTo(CursorHelper.encode(RECIPE_ID_1));
+    }
+
+    @Test
+    void getAllRecipes_afterCursor() {
+        when(recipeRepository.findRecipeIdsAfter(RECIPE_ID_1, Pageable.ofSize(21))).thenReturn(List.of());
+
+        val generatedRecipesActual = recipeService.getAllRecipes(CursorHelper.encode(RECIPE_ID_1), null);
+
+        verify(recipeRepository, never()).findByIdInOrderByIdAsc(any());
+        assertThat(generatedRecipesActual.getGeneratedRecipes()).isEmpty();
+        assertThat(generatedRecipesActual.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getAllRecipes_limitIsOutOfRange() {
+        when(recipeRepository.findRecipeIdsAfter(0L, Pageable.ofSize(101))).thenReturn(List.of());
+
+        val generatedRecipesActual = recipeService.getAllRecipes(null, 1000);
+
+        assertThat(generatedRecipesActual.getGeneratedRecipes()).isEmpty();
+    }
+
+    @Test
+    void getAllRecipes_cursorIsNotValid() {
+        val exception = assertThrows(BusinessServiceException.class,
+                () -> recipeService.getAllRecipes("not a cursor", null));
+
+        assertThat(exception.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @SneakyThrows
+    void exportRecipes() {
+        val recipe = getRecipe();
+        val nextRecipe = getRecipe();
+        nextRecipe.setId(RECIPE_ID_2);
+        val outputStream = new ByteArrayOutputStream();
+        when(recipeRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(recipe, nextRecipe));
+        when(recipeMapper.toGeneratedRecipe(any())).thenReturn(getGeneratedRecipe());
+
+        recipeService.exportRecipes(outputStream);
+
+        val lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        verify(entityManager).detach(recipe);
+        verify(entityManager).detach(nextRecipe);
+        assertThat(lines.length).isEqualTo(2);
+        assertThat(objectMapper.readValue(lines[1], GeneratedRecipe.class))
+                .usingRecursiveComparison().isEqualTo(getGeneratedRecipe());
     }
 
     @Test
@@ -75,9 +187,21 @@ class RecipeServiceTest {
         // Verify in Mockito simply means that you want to check if a certain method of a mock object has been called
         // by specific number of times. When doing verification that a method was called exactly once
         verify(recipeMapper, times(1)).toGeneratedRecipe(recipe);
+        verify(recipeCache).put(eq(RECIPE_ID_1), eq(generatedRecipeExpected), anyLong());
         assertThat(generatedRecipeActual).isEqualTo(generatedRecipeExpected);
     }
 
+    @Test
+    void getRecipeById_cached() {
+        val generatedRecipeExpected = getGeneratedRecipe();
+        when(recipeCache.get(RECIPE_ID_1)).thenReturn(Optional.of(generatedRecipeExpected));
+
+        val generatedRecipeActual = recipeService.getRecipeById(RECIPE_ID_1);
+
+        verifyNoInteractions(recipeRepository);
+        assertThat(generatedRecipeActual).isSameAs(generatedRecipeExpected);
+    }
+
     @Test
     void getRecipeById_recipeDoesNotExist() {
         when(recipeRepository.getRecipeById(RECIPE_ID_1)).thenReturn(Optional.empty());
@@ -103,7 +227,7 @@ class RecipeServiceTest {
         val generatedRecipeExpected = getGeneratedRecipe();
 
         when(searchFilterMapper.toSearchFilter(any())).thenReturn(searchFilter);
-        when(recipeRepository.findByInstructionContainingIgnoreCase(anyString())).thenReturn(List.of(recipe));
+        when(recipeRepository.findAll(where(any()))).thenReturn(List.of(recipe));
         when(recipeMapper.toGeneratedRecipe(any())).thenReturn(generatedRecipeExpected);
 
         val generatedRecipesActual = recipeService
@@ -131,7 +255,7 @@ class RecipeServiceTest {
         val generatedRecipeExpected = getGeneratedRecipe();
 
         when(searchFilterMapper.toSearchFilter(any())).thenReturn(searchFilter);
-        when(recipeRepository.findByIsVegetarian(anyBoolean())).thenReturn(List.of(recipe));
+        when(recipeRepository.findAll(where(any()))).thenReturn(List.of(recipe));
         when(recipeMapper.toGeneratedRecipe(any())).thenReturn(generatedRecipeExpected);
 
         val generatedRecipesActual = recipeService
@@ -159,7 +283,7 @@ class RecipeServiceTest {
         val generatedRecipeExpected = getGeneratedRecipe();
 
         when(searchFilterMapper.toSearchFilter(any())).thenReturn(searchFilter);
-        when(recipeRepository.findByNumberOfServings(anyInt())).thenReturn(List.of(recipe));
+        when(recipeRepository.findAll(where(any()))).thenReturn(List.of(recipe));
         when(recipeMapper.toGeneratedRecipe(any())).thenReturn(generatedRecipeExpected);
 
         val generatedRecipesActual = recipeService
@@ -189,7 +313,7 @@ class RecipeServiceTest {
         val generatedRecipeExpected = getGeneratedRecipe();
 
         when(searchFilterMapper.toSearchFilter(any())).thenReturn(searchFilter);
-        when(recipeRepository.findByNumberOfServingsGreaterThanEqual(anyInt())).thenReturn(List.of(recipe));
+        when(recipeRepository.findAll(where(any()))).thenReturn(List.of(recipe));
         when(recipeMapper.toGeneratedRecipe(any())).thenReturn(generatedRecipeExpected);
 
         val generatedRecipesActual = recipeService
@@ -219,8 +343,7 @@ class RecipeServiceTest {
         val generatedRecipeExpected = getGeneratedRecipe();
 
         when(searchFilterMapper.toSearchFilter(any())).thenReturn(searchFilter);
-        when(recipeRepository.findByRecipeIngredientsIngredientNameIn(any())).thenReturn(Set.of(recipe));
-        when(recipeRepository.findByIdIn(Set.of(RECIPE_ID_1))).thenReturn(List.of(recipe));
+        when(recipeRepository.findAll(where(any()))).thenReturn(List.of(recipe));
         when(recipeMapper.toGeneratedRecipe(any())).thenReturn(generatedRecipeExpected);
 
         val generatedRecipesActual = recipeService
@@ -285,7 +408,7 @@ class RecipeServiceTest {
     }
 
     @Test
-    void postRecipesBySearchFilter_ByExcludingIngredients_recipeDoesNotExist() {
+    void postRecipesBySearchFilter_ByExcludingIngredients_noRecipeLeft() {
         val filterValues = FilterValues.builder()
                 .ingredients(SET_OF_INGREDIENT_NAMES)
                 .build();
@@ -299,13 +422,12 @@ class RecipeServiceTest {
                         generatedFilterValues);
 
         when(searchFilterMapper.toSearchFilter(any())).thenReturn(searchFilter);
+        when(recipeRepository.findAll(where(any()))).thenReturn(List.of());
 
-        val exception = assertThrows(BusinessServiceException.class,
-                () -> recipeService.postRecipesBySearchFilter(generatedSearchFilter));
+        val generatedRecipesActual = recipeService
+                .postRecipesBySearchFilter(generatedSearchFilter);
 
-        assertThat(exception.getMessage()).isEqualTo(
-                String.format("Recipe with ingredients name %s was not found", SET_OF_INGREDIENT_NAMES));
-        assertThat(exception.getHttpStatus()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(generatedRecipesActual).isEmpty();
     }
 
     @Test
@@ -327,7 +449,7 @@ class RecipeServiceTest {
         val generatedRecipeExpected = getGeneratedRecipe();
 
         when(searchFilterMapper.toSearchFilter(any())).thenReturn(searchFilter);
-        when(recipeRepository.findByIsVegetarianAndNumberOfServings(anyBoolean(), anyInt())).thenReturn(List.of(recipe));
+        when(recipeRepository.findAll(where(any()))).thenReturn(List.of(recipe));
         when(recipeMapper.toGeneratedRecipe(any())).thenReturn(generatedRecipeExpected);
 
         val generatedRecipesActual = recipeService
@@ -358,8 +480,7 @@ class RecipeServiceTest {
         val generatedRecipeExpected = getGeneratedRecipe();
 
         when(searchFilterMapper.toSearchFilter(any())).thenReturn(searchFilter);
-        when(recipeRepository.findByRecipeIngredientsIngredientNameInAndNumberOfServings(any(), anyInt()))
-                .thenReturn(Set.of(recipe));
+        when(recipeRepository.findAll(where(any()))).thenReturn(List.of(recipe));
         when(recipeMapper.toGeneratedRecipe(any())).thenReturn(generatedRecipeExpected);
 
         val generatedRecipesActual = recipeService
@@ -401,7 +522,7 @@ class RecipeServiceTest {
     }
 
     @Test
-    void postRecipesBySearchFilter_ByInstructionAndExcludedIngredient_recipeDoesNotExist() {
+    void postRecipesBySearchFilter_ByInstructionAndExcludedIngredient_noRecipeLeft() {
         val filterValues = FilterValues.builder()
                 .ingredients(SET_OF_INGREDIENT_NAMES)
                 .instruction(INSTRUCTION_TEXT)
@@ -417,20 +538,226 @@ class RecipeServiceTest {
                         generatedFilterValues);
 
         when(searchFilterMapper.toSearchFilter(any())).thenReturn(searchFilter);
+        when(recipeRepository.findAll(where(any()))).thenReturn(List.of());
+
+        val generatedRecipesActual = recipeService
+                .postRecipesBySearchFilter(generatedSearchFilter);
+
+        assertThat(generatedRecipesActual).isEmpty();
+    }
+
+    @Test
+    void postRecipesBySearchFilter_byFilterExpression() {
+        val filterExpression = FilterExpression.builder()
+                .operator(FilterOperator.OR)
+                .operands(List.of(
+                        getFilterExpression(FilterOperator.INCL_INGREDIENTS,
+                                FilterValues.builder().ingredients(SET_OF_INGREDIENT_NAMES).build()),
+                        FilterExpression.builder()
+                                .operator(FilterOperator.NOT)
+                                .operands(List.of(getFilterExpression(FilterOperator.IS_VEGETARIAN,
+                                        FilterValues.builder().isVegetarian(IS_VEGETARIAN).build())))
+                                .build()))
+                .build();
+        val searchFilter = SearchFilter.builder()
+                .filterExpression(filterExpression)
+                .build();
+        val recipe = getRecipe();
+        val generatedRecipeExpected = getGeneratedRecipe();
+
+        when(searchFilterMapper.toSearchFilter(any())).thenReturn(searchFilter);
+        when(recipeRepository.findAll(where(any()))).thenReturn(List.of(recipe));
+        when(recipeMapper.toGeneratedRecipe(any())).thenReturn(generatedRecipeExpected);
+
+        val generatedRecipesActual = recipeService
+                .postRecipesBySearchFilter(GeneratedSearchFilter.builder().build());
+
+        verify(recipeFilterCompiler).compile(filterExpression);
+        assertThat(generatedRecipesActual).containsExactly(generatedRecipeExpected);
+    }
+
+    @Test
+    void postRecipesBySearchFilter_byIngredientIndex() {
+        val filterValues = FilterValues.builder()
+                .ingredients(SET_OF_INGREDIENT_NAMES)
+                .build();
+        val searchFilter = getSearchFilter(FilterCriteria.EXCL_INGREDIENTS, filterValues);
+        val recipe = getRecipe();
+        val generatedRecipeExpected = getGeneratedRecipe();
+
+        when(searchFilterMapper.toSearchFilter(any())).thenReturn(searchFilter);
+        when(ingredientRecipeIndex.findRecipeIds(any())).thenReturn(Optional.of(List.of(RECIPE_ID_1)));
+        when(recipeRepository.findByIdInOrderByIdAsc(List.of(RECIPE_ID_1))).thenReturn(List.of(recipe));
+        when(recipeMapper.toGeneratedRecipe(any())).thenReturn(generatedRecipeExpected);
+
+        val generatedRecipesActual = recipeService
+                .postRecipesBySearchFilter(GeneratedSearchFilter.builder().build());
+
+        verify(recipeRepository, never()).findAll(ArgumentMatchers.<Specification<Recipe>>any());
+        assertThat(generatedRecipesActual).containsExactly(generatedRecipeExpected);
+    }
+
+    @Test
+    void postRecipesBySearchFilter_cachedRecipeIds() {
+        val filterValues = FilterValues.builder()
+                .isVegetarian(true)
+                .build();
+        val searchFilter = getSearchFilter(FilterCriteria.IS_VEGETARIAN, filterValues);
+        val searchKey = new SearchResultCache.SearchKey(0, "IS_VEGETARIAN[true]");
+        val recipe = getRecipe();
+        val generatedRecipeExpected = getGeneratedRecipe();
+
+        when(searchFilterMapper.toSearchFilter(any())).thenReturn(searchFilter);
+        when(searchResultCache.keyOf(any())).thenReturn(searchKey);
+        when(searchResultCache.get(searchKey)).thenReturn(Optional.of(List.of(RECIPE_ID_1)));
+        when(recipeRepository.findByIdInOrderByIdAsc(List.of(RECIPE_ID_1))).thenReturn(List.of(recipe));
+        when(recipeMapper.toGeneratedRecipe(any())).thenReturn(generatedRecipeExpected);
+
+        val generatedRecipesActual = recipeService
+                .postRecipesBySearchFilter(GeneratedSearchFilter.builder().build());
+
+        verify(recipeRepository, never()).findAll(ArgumentMatchers.<Specification<Recipe>>any());
+        verify(searchResultCache, never()).put(any(), any());
+        assertThat(generatedRecipesActual).containsExactly(generatedRecipeExpected);
+    }
+
+    @Test
+    void postRecipesBySearchFilter_cachedRecipeIdsAreFetchedInChunks() {
+        val filterValues = FilterValues.builder()
+                .isVegetarian(true)
+                .build();
+        val searchFilter = getSearchFilter(FilterCriteria.IS_VEGETARIAN, filterValues);
+        val searchKey = new SearchResultCache.SearchKey(0, "IS_VEGETARIAN[true]");
+        val recipeIds = LongStream.rangeClosed(1, 150).boxed().collect(Collectors.toList());
+
+        when(searchFilterMapper.toSearchFilter(any())).thenReturn(searchFilter);
+        when(searchResultCache.keyOf(any())).thenReturn(searchKey);
+        when(searchResultCache.get(searchKey)).thenReturn(Optional.of(recipeIds));
+        when(recipeRepository.findByIdInOrderByIdAsc(any())).thenReturn(List.of(getRecipe()));
+
+        recipeService.postRecipesBySearchFilter(GeneratedSearchFilter.builder().build());
+
+        verify(recipeRepository).findByIdInOrderByIdAsc(recipeIds.subList(0, 100));
+        verify(recipeRepository).findByIdInOrderByIdAsc(recipeIds.subList(100, 150));
+    }
+
+    @Test
+    void postRecipesBySearchFilter_cachesRecipeIds() {
+        val filterValues = FilterValues.builder()
+                .isVegetarian(true)
+                .build();
+        val searchFilter = getSearchFilter(FilterCriteria.IS_VEGETARIAN, filterValues);
+        val searchKey = new SearchResultCache.SearchKey(0, "IS_VEGETARIAN[true]");
+        val recipe = getRecipe();
+
+        when(searchFilterMapper.toSearchFilter(any())).thenReturn(searchFilter);
+        when(searchResultCache.keyOf(any())).thenReturn(searchKey);
+        when(recipeRepository.findAll(ArgumentMatchers.<Specification<Recipe>>any())).thenReturn(List.of(recipe));
+        when(recipeMapper.toGeneratedRecipe(any())).thenReturn(getGeneratedRecipe());
+
+        recipeService.postRecipesBySearchFilter(GeneratedSearchFilter.builder().build());
+
+        verify(searchResultCache).put(searchKey, List.of(recipe.getId()));
+    }
+
+    @Test
+    void postRecipesBySearchFilter_byTextIndex() {
+        val filterValues = FilterValues.builder()
+                .instruction(INSTRUCTION_TEXT)
+                .build();
+        val searchFilter = getSearchFilter(FilterCriteria.INSTRUCTION, filterValues);
+        val recipe = getRecipe();
+        val nextRecipe = getRecipe();
+        nextRecipe.setId(RECIPE_ID_2);
+        val generatedRecipe = getGeneratedRecipe();
+        val nextGeneratedRecipe = getGeneratedRecipe();
+        nextGeneratedRecipe.setRecipeId(RECIPE_ID_2);
+
+        when(searchFilterMapper.toSearchFilter(any())).thenReturn(searchFilter);
+        when(recipeTextIndex.search(any())).thenReturn(Optional.of(List.of(RECIPE_ID_2, RECIPE_ID_1)));
+        when(recipeRepository.findByIdInOrderByIdAsc(List.of(RECIPE_ID_2, RECIPE_ID_1)))
+                .thenReturn(List.of(recipe, nextRecipe));
+        when(recipeMapper.toGeneratedRecipe(recipe)).thenReturn(generatedRecipe);
+        when(recipeMapper.toGeneratedRecipe(nextRecipe)).thenReturn(nextGeneratedRecipe);
+
+        val generatedRecipesActual = recipeService
+                .postRecipesBySearchFilter(GeneratedSearchFilter.builder().build());
+
+        // The most relevant recipe comes first
+        verify(ingredientRecipeIndex, never()).findRecipeIds(any());
+        assertThat(generatedRecipesActual).containsExactly(nextGeneratedRecipe, generatedRecipe);
+    }
+
+    @Test
+    void findRecipeIdsBySearchFilter() {
+        val filterValues = FilterValues.builder()
+                .isVegetarian(true)
+                .build();
+        val searchFilter = getSearchFilter(FilterCriteria.IS_VEGETARIAN, filterValues);
+        val searchKey = new SearchResultCache.SearchKey(0, "IS_VEGETARIAN[true]");
+
+        when(searchFilterMapper.toSearchFilter(any())).thenReturn(searchFilter);
+        when(searchResultCache.keyOf(any())).thenReturn(searchKey);
+        when(recipeRepository.findRecipeIds(ArgumentMatchers.any())).thenReturn(List.of(RECIPE_ID_1, RECIPE_ID_2));
+
+        val recipeIdsActual = recipeService.findRecipeIdsBySearchFilter(GeneratedSearchFilter.builder().build());
+
+        // Only the ids are read, the recipes are fetched by the caller
+        verify(recipeRepository, never()).findAll(ArgumentMatchers.<Specification<Recipe>>any());
+        verify(searchResultCache).put(searchKey, List.of(RECIPE_ID_1, RECIPE_ID_2));
+        assertThat(recipeIdsActual).containsExactly(RECIPE_ID_1, RECIPE_ID_2);
+    }
+
+    @Test
+    void findRecipeIdsBySearchFilter_byIncludingIngredients_recipeDoesNotExist() {
+        val filterValues = FilterValues.builder()
+                .ingredients(SET_OF_INGREDIENT_NAMES)
+                .build();
+        val searchFilter = getSearchFilter(FilterCriteria.INCL_INGREDIENTS, filterValues);
+
+        when(searchFilterMapper.toSearchFilter(any())).thenReturn(searchFilter);
+        when(ingredientRecipeIndex.findRecipeIds(any())).thenReturn(Optional.of(List.of()));
 
         val exception = assertThrows(BusinessServiceException.class,
-                () -> recipeService.postRecipesBySearchFilter(generatedSearchFilter));
+                () -> recipeService.findRecipeIdsBySearchFilter(GeneratedSearchFilter.builder().build()));
 
-        assertThat(exception.getMessage())
-                .isEqualTo(String.format(
-                        "Recipe with excluded ingredients \"%s\" and instruction \"%s\" was not found",
-                        SET_OF_INGREDIENT_NAMES, INSTRUCTION_TEXT));
         assertThat(exception.getHttpStatus()).isEqualTo(HttpStatus.NOT_FOUND);
     }
 
+    @Test
+    void postRecipesBySearchFilter_filterExpressionIsNotValid() {
+        val filterExpression = FilterExpression.builder()
+                .operator(FilterOperator.NOT)
+                .build();
+        val searchFilter = SearchFilter.builder()
+                .filterExpression(filterExpression)
+                .build();
+
+        when(searchFilterMapper.toSearchFilter(any())).thenReturn(searchFilter);
+
+        val exception = assertThrows(BusinessServiceException.class,
+                () -> recipeService.postRecipesBySearchFilter(GeneratedSearchFilter.builder().build()));
+
+        assertThat(exception.getMessage()).isEqualTo("Filter operator not requires exactly one operand");
+        assertThat(exception.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void postRecipesBySearchFilter_filterIsMissing() {
+        when(searchFilterMapper.toSearchFilter(any())).thenReturn(SearchFilter.builder().build());
+
+        val exception = assertThrows(BusinessServiceException.class,
+                () -> recipeService.postRecipesBySearchFilter(GeneratedSearchFilter.builder().build()));
+
+        assertThat(exception.getMessage()).isEqualTo("Search filter requires filter_criteria or filter_expression");
+        assertThat(exception.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
     @Test
     void createRecipe() {
         val recipe = getRecipe();
+        // A new recipe has no version until it is saved
+        recipe.setVersion(null);
         val ingredient = getIngredient();
         val generatedRecipe = getGeneratedRecipe();
         val recipeIngredientsExpected = List.of(getRecipeIngredient());
@@ -438,7 +765,7 @@ class RecipeServiceTest {
         when(recipeRepository.getRecipeById(anyLong())).thenReturn(Optional.empty());
         when(recipeMapper.toRecipe(any())).thenReturn(recipe);
         when(recipeMapper.mapRecipeIngredient(any())).thenReturn(getRecipeIngredient());
-        when(ingredientRepository.findAll(where(any()))).thenReturn(List.of(ingredient));
+        when(ingredientDictionary.resolve(Set.of(INGREDIENT_NAME))).thenReturn(Map.of(INGREDIENT_NAME, ingredient));
         when(recipeIngredientRepository.saveAll(any())).thenReturn(recipeIngredientsExpected);
 
         recipeService.createRecipe(generatedRecipe);
@@ -453,6 +780,7 @@ class RecipeServiceTest {
         // usingRecursiveComparison() comparing objects field by field as it offers more flexibility,
         // better reporting and an easier to use API.
         assertThat(recipeIngredientsExpected).usingRecursiveComparison().isEqualTo(recipeIngredientArgumentCaptorValue);
+        verify(applicationEventPublisher).publishEvent(new RecipeChangedEvent(RECIPE_ID_1));
     }
 
     @Test
@@ -468,33 +796,84 @@ class RecipeServiceTest {
         assertThat(exception.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
+    @Test
+    void createRecipe_ingredientNameIsMissing() {
+        val generatedRecipe = getGeneratedRecipe();
+        generatedRecipe.getRecipeIngredients().forEach(recipeIngredient -> recipeIngredient.getIngredient().setName(null));
+        when(recipeRepository.getRecipeById(anyLong())).thenReturn(Optional.empty());
+        when(recipeMapper.toRecipe(any())).thenReturn(getRecipe());
+
+        val exception = assertThrows(BusinessServiceException.class,
+                () -> recipeService.createRecipe(generatedRecipe));
+
+        verifyNoInteractions(ingredientDictionary, recipeIngredientRepository);
+        assertThat(exception.getMessage()).isEqualTo("Recipe ingredient requires an ingredient name");
+        assertThat(exception.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
     @Test
     void updateRecipe() {
         val recipe = getRecipe();
-        val ingredient = getIngredient();
-        val generatedRecipe = getGeneratedRecipe();
-        val recipeIngredients = List.of(getRecipeIngredient());
-        val recipeIngredientExpected = getRecipeIngredient();
-        recipeIngredientExpected.setAmount(200);
+        val recipeIngredientDb = getRecipeIngredient();
+        recipe.setRecipeIngredients(new HashSet<>(Set.of(recipeIngredientDb)));
+        val recipeIngredient = getRecipeIngredient();
+        recipeIngredient.setAmount(200);
 
         when(recipeRepository.getRecipeById(anyLong())).thenReturn(Optional.of(recipe));
-        when(recipeIngredientRepository.findAll(where(any()))).thenReturn(recipeIngredients);
-        when(ingredientRepository.findAll(where(any()))).thenReturn(List.of(ingredient));
-        when(recipeMapper.toRecipe(any())).thenReturn(recipe);
-        when(recipeMapper.mapRecipeIngredient(any())).thenReturn(recipeIngredientExpected);
-        when(recipeIngredientRepository.saveAll(any())).thenReturn(recipeIngredients);
-
-        recipeService.updateRecipe(RECIPE_ID_1, generatedRecipe);
+        when(ingredientDictionary.resolve(Set.of(INGREDIENT_NAME)))
+                .thenReturn(Map.of(INGREDIENT_NAME, getIngredient()));
+        when(recipeMapper.toRecipe(any())).thenReturn(getRecipe());
+        when(recipeMapper.mapRecipeIngredient(any())).thenReturn(recipeIngredient);
+
+        val versionActual = recipeService.updateRecipe(RECIPE_ID_1, getGeneratedRecipe(), ETAG);
+
+        // The stored row of the ingredient is updated in place
+        assertThat(recipe.getRecipeIngredients()).containsExactly(recipeIngredientDb);
+        assertThat(recipeIngredientDb.getAmount()).isEqualTo(200);
+        verify(recipeIngredientRepository, never()).saveAll(any());
+        verify(recipeIngredientRepository, never()).deleteAll(any());
+        // A change of the recipe ingredients alone increments the version of the recipe
+        verify(entityManager).lock(recipe, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+        verify(entityManager).flush();
+        assertThat(versionActual).isEqualTo(VERSION);
+        verify(applicationEventPublisher).publishEvent(new RecipeChangedEvent(RECIPE_ID_1));
+        // Missing ingredients are inserted before the transaction starts
+        val inOrder = inOrder(ingredientDictionary, transactionManager);
+        inOrder.verify(ingredientDictionary).insertMissing(Set.of(INGREDIENT_NAME));
+        inOrder.verify(transactionManager).getTransaction(any());
+    }
 
-        verify(recipeIngredientRepository).saveAll(recipeIngredientArgumentCaptor.capture());
+    @Test
+    void updateRecipe_ingredientsAreReplaced() {
+        val recipe = getRecipe();
+        val recipeIngredientDb = getRecipeIngredient();
+        val removedRecipeIngredientDb = getRecipeIngredient(2L, Ingredient.builder().id(2L).name("egg").build());
+        recipe.setRecipeIngredients(new HashSet<>(Set.of(recipeIngredientDb, removedRecipeIngredientDb)));
 
-        val recipeIngredientArgumentCaptorValue = recipeIngredientArgumentCaptor.getValue();
+        val sugar = Ingredient.builder().id(4L).name("sugar").build();
+        val generatedRecipe = getGeneratedRecipe();
+        val generatedSugar = getGeneratedRecipeIngredient();
+        generatedSugar.setIngredient(GeneratedIngredient.builder().name("sugar").build());
+        generatedRecipe.setRecipeIngredients(Set.of(getGeneratedRecipeIngredient(), generatedSugar));
+        val addedRecipeIngredient = getRecipeIngredient(null, Ingredient.builder().name("sugar").build());
 
-        assertThat(recipeIngredientArgumentCaptorValue.size()).isEqualTo(1);
-        // usingRecursiveComparison() comparing objects field by field as it offers more flexibility,
-        // better reporting and an easier to use API.
-        assertThat(recipeIngredientArgumentCaptorValue).usingRecursiveComparison()
-                .isEqualTo(List.of(recipeIngredientExpected));
+        when(recipeRepository.getRecipeById(anyLong())).thenReturn(Optional.of(recipe));
+        when(ingredientDictionary.resolve(Set.of(INGREDIENT_NAME, "sugar")))
+                .thenReturn(Map.of(INGREDIENT_NAME, getIngredient(), "sugar", sugar));
+        when(recipeMapper.toRecipe(any())).thenReturn(getRecipe());
+        when(recipeMapper.mapRecipeIngredient(getGeneratedRecipeIngredient())).thenReturn(getRecipeIngredient());
+        when(recipeMapper.mapRecipeIngredient(generatedSugar)).thenReturn(addedRecipeIngredient);
+
+        recipeService.updateRecipe(RECIPE_ID_1, generatedRecipe, null);
+
+        // The unchanged row is kept, the removed ingredient is deleted and the new one inserted
+        assertThat(recipe.getRecipeIngredients())
+                .containsExactlyInAnyOrder(recipeIngredientDb, addedRecipeIngredient);
+        assertThat(addedRecipeIngredient.getIngredient()).isSameAs(sugar);
+        assertThat(addedRecipeIngredient.getRecipe()).isSameAs(recipe);
+        verify(recipeIngredientRepository).saveAll(List.of(addedRecipeIngredient));
+        verify(recipeIngredientRepository).deleteAll(List.of(removedRecipeIngredientDb));
+        verify(applicationEventPublisher).publishEvent(new RecipeChangedEvent(RECIPE_ID_1));
     }
 
     @Test
@@ -503,22 +882,138 @@ class RecipeServiceTest {
         when(recipeRepository.getRecipeById(anyLong())).thenReturn(Optional.empty());
 
         val exception = assertThrows(BusinessServiceException.class,
-                () -> recipeService.updateRecipe(RECIPE_ID_1, generatedRecipe));
+                () -> recipeService.updateRecipe(RECIPE_ID_1, generatedRecipe, null));
 
         assertThat(exception.getMessage()).isEqualTo("Recipe with id: 1 does not exist");
         assertThat(exception.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
+    @Test
+    void updateRecipe_versionDoesNotMatch() {
+        val generatedRecipe = getGeneratedRecipe();
+        when(recipeRepository.getRecipeById(anyLong())).thenReturn(Optional.of(getRecipe()));
+
+        val exception = assertThrows(BusinessServiceException.class,
+                () -> recipeService.updateRecipe(RECIPE_ID_1, generatedRecipe, "\"2\""));
+
+        assertThat(exception.getMessage()).isEqualTo("Recipe with id: 1 has been changed, its ETag is \"3\"");
+        assertThat(exception.getHttpStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        verifyNoInteractions(recipeMapper, recipeIngredientRepository, applicationEventPublisher);
+    }
+
+    @Test
+    void patchRecipe() {
+        val recipe = getRecipe();
+        val generatedRecipe = getGeneratedRecipe();
+        generatedRecipe.setRecipeIngredients(null);
+
+        when(recipeRepository.findById(RECIPE_ID_1)).thenReturn(Optional.of(recipe));
+        when(recipeMapper.toGeneratedRecipeWithoutIngredients(recipe)).thenReturn(generatedRecipe);
+        when(recipeMapper.toRecipe(any())).thenReturn(getRecipe());
+
+        recipeService.patchRecipe(RECIPE_ID_1, Map.of("image", "cake.jpg"), null);
+
+        verify(recipeMapper).toRecipe(generatedRecipeArgumentCaptor.capture());
+        assertThat(generatedRecipeArgumentCaptor.getValue().getImage()).isEqualTo("cake.jpg");
+        assertThat(generatedRecipeArgumentCaptor.getValue().getName()).isEqualTo(NAME);
+        // Recipe ingredients are neither loaded nor rewritten
+        verify(recipeRepository, never()).getRecipeById(anyLong());
+        verifyNoInteractions(ingredientDictionary, recipeIngredientRepository);
+        verify(entityManager, never()).lock(any(), any());
+        verify(applicationEventPublisher).publishEvent(new RecipeChangedEvent(RECIPE_ID_1));
+    }
+
+    @Test
+    void patchRecipe_memberIsNull() {
+        val recipe = getRecipe();
+        val generatedRecipe = getGeneratedRecipe();
+        generatedRecipe.setRecipeIngredients(null);
+        val mergePatch = new HashMap<String, Object>();
+        mergePatch.put("description", null);
+
+        when(recipeRepository.findById(RECIPE_ID_1)).thenReturn(Optional.of(recipe));
+        when(recipeMapper.toGeneratedRecipeWithoutIngredients(recipe)).thenReturn(generatedRecipe);
+        when(recipeMapper.toRecipe(any())).thenReturn(getRecipe());
+
+        recipeService.patchRecipe(RECIPE_ID_1, mergePatch, null);
+
+        verify(recipeMapper).toRecipe(generatedRecipeArgumentCaptor.capture());
+        assertThat(generatedRecipeArgumentCaptor.getValue().getDescription()).isNull();
+        assertThat(generatedRecipeArgumentCaptor.getValue().getImage()).isEqualTo(IMAGE);
+    }
+
+    @Test
+    void patchRecipe_recipeIngredientsArePatched() {
+        val recipe = getRecipe();
+        val recipeIngredientDb = getRecipeIngredient();
+        recipe.setRecipeIngredients(new HashSet<>(Set.of(recipeIngredientDb)));
+        val generatedRecipe = getGeneratedRecipe();
+        generatedRecipe.setRecipeIngredients(null);
+
+        when(recipeRepository.findById(RECIPE_ID_1)).thenReturn(Optional.of(recipe));
+        when(recipeMapper.toGeneratedRecipeWithoutIngredients(recipe)).thenReturn(generatedRecipe);
+        when(recipeMapper.toRecipe(any())).thenReturn(getRecipe());
+
+        recipeService.patchRecipe(RECIPE_ID_1, Map.of("recipeIngredients", List.of()), null);
+
+        assertThat(recipe.getRecipeIngredients()).isEmpty();
+        verify(recipeIngredientRepository).deleteAll(List.of(recipeIngredientDb));
+    }
+
+    @Test
+    void patchRecipe_nameIsRemoved() {
+        val recipe = getRecipe();
+        val generatedRecipe = getGeneratedRecipe();
+        generatedRecipe.setRecipeIngredients(null);
+        val mergePatch = new HashMap<String, Object>();
+        mergePatch.put("name", null);
+
+        when(recipeRepository.findById(RECIPE_ID_1)).thenReturn(Optional.of(recipe));
+        when(recipeMapper.toGeneratedRecipeWithoutIngredients(recipe)).thenReturn(generatedRecipe);
+
+        val exception = assertThrows(BusinessServiceException.class,
+                () -> recipeService.patchRecipe(RECIPE_ID_1, mergePatch, null));
+
+        assertThat(exception.getMessage()).isEqualTo("Recipe requires a name");
+        assertThat(exception.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void patchRecipe_recipeIdIsChanged() {
+        val recipe = getRecipe();
+        val generatedRecipe = getGeneratedRecipe();
+        generatedRecipe.setRecipeIngredients(null);
+
+        when(recipeRepository.findById(RECIPE_ID_1)).thenReturn(Optional.of(recipe));
+        when(recipeMapper.toGeneratedRecipeWithoutIngredients(recipe)).thenReturn(generatedRecipe);
+
+        val exception = assertThrows(BusinessServiceException.class,
+                () -> recipeService.patchRecipe(RECIPE_ID_1, Map.of("recipe_id", RECIPE_ID_2), null));
+
+        assertThat(exception.getMessage()).isEqualTo("Recipe id can not be changed");
+        assertThat(exception.getHttpStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void patchRecipe_patchIsNotAnObject() {
+        val exception = assertThrows(BusinessServiceException.class,
+                () -> recipeService.patchRecipe(RECIPE_ID_1, List.of(NAME), null));
+
+        assertThat(exception.getMessage()).isEqualTo("Merge patch of a recipe must be a JSON object");
+        verifyNoInteractions(recipeRepository);
+    }
+
     @Test
     void deleteRecipe() {
         val recipe = getRecipe();
         when(recipeRepository.getRecipeById(anyLong())).thenReturn(Optional.of(recipe));
 
-        recipeService.deleteRecipe(RECIPE_ID_1);
+        recipeService.deleteRecipe(RECIPE_ID_1, null);
 
         // Verify in Mockito simply means that you want to check if a certain method of a mock object has been called
         // by specific number of times. When doing verification that a method was called exactly once
-        verify(recipeRepository, times(1)).deleteById(RECIPE_ID_1);
+        verify(recipeRepository, times(1)).delete(recipe);
+        verify(applicationEventPublisher).publishEvent(new RecipeChangedEvent(RECIPE_ID_1));
     }
 
     @Test
@@ -526,9 +1021,20 @@ class RecipeServiceTest {
         when(recipeRepository.getRecipeById(anyLong())).thenReturn(Optional.empty());
 
         val exception = assertThrows(BusinessServiceException.class,
-                () -> recipeService.deleteRecipe(RECIPE_ID_1));
+                () -> recipeService.deleteRecipe(RECIPE_ID_1, null));
 
         assertThat(exception.getMessage()).isEqualTo("Recipe with id: 1 does not exist");
         assertThat(exception.getHttpStatus()).isEqualTo(HttpStatus.FORBIDDEN);
     }
-}
\ No newline at end of file
+
+    @Test
+    void deleteRecipe_versionDoesNotMatch() {
+        when(recipeRepository.getRecipeById(anyLong())).thenReturn(Optional.of(getRecipe()));
+
+        val exception = assertThrows(BusinessServiceException.class,
+                () -> recipeService.deleteRecipe(RECIPE_ID_1, "\"2\", \"4\""));
+
+        assertThat(exception.getHttpStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        verify(recipeRepository, never()).delete(any());
+    }
+}
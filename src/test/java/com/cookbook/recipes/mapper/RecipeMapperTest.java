@@ -57,6 +57,8 @@ class RecipeMapperTest {
         val generatedRecipe = getGeneratedRecipe();
         val recipeExpected = getRecipe();
         recipeExpected.setRecipeIngredients(null);
+        // The version of a request is ignored
+        recipeExpected.setVersion(null);
 
         val recipeActual = recipeMapper.toRecipe(generatedRecipe);
 
@@ -73,6 +75,18 @@ class RecipeMapperTest {
         assertThat(recipeActual.getInstruction()).isEqualTo(INSTRUCTION);
     }
 
+    @Test
+    void toRecipe_stripTags() {
+        val generatedRecipe = getGeneratedRecipe();
+        generatedRecipe.setName("<b>Mac & cheese</b>");
+        generatedRecipe.setDescription("<i>" + DESCRIPTION + "</i>");
+
+        val recipeActual = recipeMapper.toRecipe(generatedRecipe);
+
+        assertThat(recipeActual.getName()).isEqualTo("bMac & cheese/b");
+        assertThat(recipeActual.getDescription()).isEqualTo("i" + DESCRIPTION + "/i");
+    }
+
     @Test
     void toRecipe_generatedRecipeIsNull() {
         val recipeActual = recipeMapper.toRecipe(null);
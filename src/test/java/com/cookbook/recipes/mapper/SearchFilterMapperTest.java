@@ -7,6 +7,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -53,6 +54,34 @@ class SearchFilterMapperTest {
 
     }
 
+    @Test
+    void toSearchFilter_filterExpression() {
+        val generatedSearchFilter = GeneratedSearchFilter.builder()
+                .filterExpression(GeneratedFilterExpression.builder()
+                        .operator(GeneratedFilterOperator.NOT)
+                        .operands(List.of(GeneratedFilterExpression.builder()
+                                .operator(GeneratedFilterOperator.INCL_INGREDIENTS)
+                                .filterValues(GeneratedFilterValues.builder()
+                                        .ingredients(SET_OF_INGREDIENT_NAMES)
+                                        .build())
+                                .build()))
+                        .build())
+                .build();
+        val searchFilterExpected = SearchFilter.builder()
+                .filterExpression(FilterExpression.builder()
+                        .operator(FilterOperator.NOT)
+                        .operands(List.of(getFilterExpression(FilterOperator.INCL_INGREDIENTS,
+                                FilterValues.builder()
+                                        .ingredients(SET_OF_INGREDIENT_NAMES)
+                                        .build())))
+                        .build())
+                .build();
+
+        val searchFilterActual = searchFilterMapper.toSearchFilter(generatedSearchFilter);
+
+        assertThat(searchFilterActual).usingRecursiveComparison().isEqualTo(searchFilterExpected);
+    }
+
     @Test
     void toSearchFilter_generatedSearchFilterIsNull() {
         val searchFilterActual = searchFilterMapper.toSearchFilter(null);
@@ -0,0 +1,28 @@
+package com.cookbook.recipes.mapper.utils;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CursorHelperTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1L, 42L, Long.MAX_VALUE})
+    void encodeAndDecode(final Long recipeIdExpected) {
+        val cursor = CursorHelper.encode(recipeIdExpected);
+
+        assertThat(CursorHelper.decode(cursor)).isEqualTo(recipeIdExpected);
+    }
+
+    @Test
+    void decode_cursorIsNotValid() {
+        val exception = assertThrows(IllegalArgumentException.class,
+                () -> CursorHelper.decode("not a cursor"));
+
+        assertThat(exception.getMessage()).isEqualTo("Cursor not a cursor is not valid");
+    }
+}
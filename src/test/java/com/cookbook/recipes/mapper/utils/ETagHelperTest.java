@@ -0,0 +1,39 @@
+package com.cookbook.recipes.mapper.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ETagHelperTest {
+
+    @Test
+    void toETag() {
+        assertThat(ETagHelper.toETag(3L)).isEqualTo("\"3\"");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\"3\"", "*", "\"2\", \"3\"", " \"3\" "})
+    void matches(final String ifMatch) {
+        assertThat(ETagHelper.matches(ifMatch, 3L)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\"2\"", "W/\"3\"", "3", "\"2\", \"4\""})
+    void matches_versionDoesNotMatch(final String ifMatch) {
+        assertThat(ETagHelper.matches(ifMatch, 3L)).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\"3\"", "W/\"3\"", "*", "\"2\", W/\"3\""})
+    void matchesWeakly(final String ifNoneMatch) {
+        assertThat(ETagHelper.matchesWeakly(ifNoneMatch, "\"3\"")).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\"2\"", "W/\"2\"", "3"})
+    void matchesWeakly_eTagDoesNotMatch(final String ifNoneMatch) {
+        assertThat(ETagHelper.matchesWeakly(ifNoneMatch, "\"3\"")).isFalse();
+    }
+}
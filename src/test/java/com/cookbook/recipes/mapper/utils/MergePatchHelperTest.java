@@ -0,0 +1,45 @@
+package com.cookbook.recipes.mapper.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MergePatchHelperTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Examples of RFC 7396, appendix A
+    @SneakyThrows
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "{'a':'b'}|{'a':'c'}|{'a':'c'}",
+            "{'a':'b'}|{'b':'c'}|{'a':'b','b':'c'}",
+            "{'a':'b'}|{'a':null}|{}",
+            "{'a':'b','b':'c'}|{'a':null}|{'b':'c'}",
+            "{'a':['b']}|{'a':'c'}|{'a':'c'}",
+            "{'a':'c'}|{'a':['b']}|{'a':['b']}",
+            "{'a':{'b':'c'}}|{'a':{'b':'d','c':null}}|{'a':{'b':'d'}}",
+            "{'a':[{'b':'c'}]}|{'a':[1]}|{'a':[1]}",
+            "['a','b']|['c','d']|['c','d']",
+            "{'a':'b'}|['c']|['c']",
+            "{'a':'foo'}|null|null",
+            "{'e':null}|{'a':1}|{'e':null,'a':1}",
+            "[1,2]|{'a':'b','c':null}|{'a':'b'}",
+            "{}|{'a':{'bb':{'ccc':null}}}|{'a':{'bb':{}}}"
+    })
+    void apply(final String target, final String patch, final String expected) {
+        val patchedActual = MergePatchHelper.apply(readTree(target), readTree(patch));
+
+        assertThat(patchedActual).isEqualTo(readTree(expected));
+    }
+
+    @SneakyThrows
+    private JsonNode readTree(final String json) {
+        return objectMapper.readTree(json.replace('\'', '"'));
+    }
+}
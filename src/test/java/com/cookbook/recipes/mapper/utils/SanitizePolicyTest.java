@@ -0,0 +1,52 @@
+package com.cookbook.recipes.mapper.utils;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SanitizePolicyTest {
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "test, te&&<>st",
+            "test, <test>",
+            "Mac  cheese, Mac & cheese",
+            "null, null"},
+            nullValues = "null")
+    void apply_stripMarkup(final String sanitizedTextExpected, final String text) {
+        assertThat(SanitizePolicy.STRIP_MARKUP.apply(text)).isEqualTo(sanitizedTextExpected);
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "bCarrot/b cake, <b>Carrot</b> cake",
+            "Mac & cheese, Mac & cheese",
+            "&lt;script&gt;, &lt;script&gt;",
+            "script, <<script>>"},
+            ignoreLeadingAndTrailingWhitespace = false,
+            delimiterString = ", ")
+    void apply_stripTags(final String sanitizedTextExpected, final String text) {
+        // Stripping is idempotent, text sanitized once is not changed again
+        assertThat(SanitizePolicy.STRIP_TAGS.apply(text)).isEqualTo(sanitizedTextExpected);
+        assertThat(SanitizePolicy.STRIP_TAGS.apply(sanitizedTextExpected)).isEqualTo(sanitizedTextExpected);
+    }
+
+    @Test
+    void apply_textIsClean() {
+        val text = "Heat oven to 350°F. Bake for 25-30 mins";
+
+        // Clean text is not copied
+        assertThat(SanitizePolicy.STRIP_MARKUP.apply(text)).isSameAs(text);
+        assertThat(SanitizePolicy.STRIP_TAGS.apply(text)).isSameAs(text);
+    }
+
+    @Test
+    void strip_characterIsNotAscii() {
+        assertThatThrownBy(() -> SanitizePolicy.strip("°"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
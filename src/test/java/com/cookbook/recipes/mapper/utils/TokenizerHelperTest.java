@@ -0,0 +1,23 @@
+package com.cookbook.recipes.mapper.utils;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenizerHelperTest {
+
+    @Test
+    void tokenize() {
+        val tokensActual = TokenizerHelper.tokenize("Heat oven to 350°F. Bake for 25-30 mins, Crème brûlée");
+
+        assertThat(tokensActual).containsExactly(
+                "heat", "oven", "to", "350", "f", "bake", "for", "25", "30", "mins", "creme", "brulee");
+    }
+
+    @Test
+    void tokenize_textIsBlank() {
+        assertThat(TokenizerHelper.tokenize(" ")).isEmpty();
+        assertThat(TokenizerHelper.tokenize(null)).isEmpty();
+    }
+}
@@ -1,15 +1,18 @@
 package com.cookbook.recipes.repository;
 
+import com.cookbook.recipes.model.Ingredient;
 import lombok.val;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.util.Set;
 
 import static com.cookbook.recipes.util.TestDataFactory.INGREDIENT_NAME;
 import static com.cookbook.recipes.util.TestDataFactory.getIngredient;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @DataJpaTest
 class IngredientRepositoryTest {
@@ -37,4 +40,11 @@ class IngredientRepositoryTest {
         assertThat(ingredientsActual.get(0).getName()).isEqualTo(INGREDIENT_NAME);
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void saveAndFlush_ingredientNameExists() {
+        val ingredient = Ingredient.builder().name(INGREDIENT_NAME).build();
+
+        assertThrows(DataIntegrityViolationException.class, () -> ingredientRepository.saveAndFlush(ingredient));
+    }
+}
@@ -0,0 +1,140 @@
+package com.cookbook.recipes.repository;
+
+import com.cookbook.recipes.mapper.RecipeMapper;
+import com.cookbook.recipes.mapper.RecipeMapperImpl;
+import com.cookbook.recipes.model.GeneratedRecipe;
+import com.cookbook.recipes.model.Ingredient;
+import com.cookbook.recipes.model.Recipe;
+import com.cookbook.recipes.model.RecipeIngredient;
+import lombok.val;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.cookbook.recipes.repository.spec.RecipeSpecifications.*;
+import static com.cookbook.recipes.util.TestDataFactory.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.data.jpa.domain.Specification.where;
+
+/*
+Every read path maps recipes with all their ingredients, as the endpoints do,
+and must not issue more than one select for the whole object graph.
+A new recipe is inserted by one batched statement per table.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class RecipeRepositoryStatementCountTest {
+
+    private static final long ONE_STATEMENT = 1L;
+    // One sequence call and one batched insert for the recipe and for its ingredients
+    private static final long INSERT_STATEMENTS = 4L;
+    private static final int RECIPE_INGREDIENTS = 30;
+
+    private final RecipeRepository recipeRepository;
+    private final RecipeIngredientRepository recipeIngredientRepository;
+    private final EntityManager entityManager;
+    private final RecipeMapper recipeMapper = new RecipeMapperImpl();
+    private Statistics statistics;
+
+    @Autowired
+    public RecipeRepositoryStatementCountTest(RecipeRepository recipeRepository,
+                                              RecipeIngredientRepository recipeIngredientRepository,
+                                              EntityManager entityManager) {
+        this.recipeRepository = recipeRepository;
+        this.recipeIngredientRepository = recipeIngredientRepository;
+        this.entityManager = entityManager;
+    }
+
+    @BeforeEach
+    void setup() {
+        entityManager.clear();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getRecipeById() {
+        val recipeActual = recipeRepository.getRecipeById(RECIPE_ID_1).orElseThrow();
+
+        assertThat(toGeneratedRecipes(List.of(recipeActual))).hasSize(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(ONE_STATEMENT);
+    }
+
+    @Test
+    void findAll_specification() {
+        val recipeActual = recipeRepository.findAll(where(recipeIsVegetarian(IS_VEGETARIAN)));
+
+        assertThat(toGeneratedRecipes(recipeActual)).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(ONE_STATEMENT);
+    }
+
+    @Test
+    void findAll_ingredientsContains() {
+        val recipeActual = recipeRepository.findAll(where(ingredientsContains(Set.of("egg", "vegetable oil"))));
+
+        assertThat(toGeneratedRecipes(recipeActual)).hasSize(4);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(ONE_STATEMENT);
+    }
+
+    @Test
+    void findByIdInOrderByIdAsc() {
+        val recipeActual = recipeRepository.findByIdInOrderByIdAsc(List.of(RECIPE_ID_1, RECIPE_ID_2));
+
+        assertThat(toGeneratedRecipes(recipeActual)).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(ONE_STATEMENT);
+    }
+
+    @Test
+    void findAll_ingredientsContainsLoadsAllIngredients() {
+        val recipeActual = recipeRepository.findAll(where(ingredientsContains(Set.of("salt"))));
+
+        // All ingredients of the matching recipes are loaded, not only the searched one
+        assertThat(toGeneratedRecipes(recipeActual))
+                .extracting(generatedRecipe -> generatedRecipe.getRecipeIngredients().size())
+                .containsExactlyInAnyOrder(2, 3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(ONE_STATEMENT);
+    }
+
+    @Test
+    void streamAllByOrderByIdAsc() {
+        try (val recipeActual = recipeRepository.streamAllByOrderByIdAsc()) {
+            assertThat(toGeneratedRecipes(recipeActual.collect(Collectors.toList()))).hasSize(4);
+        }
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(ONE_STATEMENT);
+    }
+
+    @Test
+    void saveAll_recipeIngredients() {
+        val recipe = getRecipe();
+        recipe.setId(null);
+        val ingredient = entityManager.getReference(Ingredient.class, INGREDIENT_ID_LONG);
+        val recipeIngredients = IntStream.range(0, RECIPE_INGREDIENTS)
+                .mapToObj(amount -> RecipeIngredient.builder()
+                        .recipe(recipe)
+                        .ingredient(ingredient)
+                        .amount(amount)
+                        .build())
+                .collect(Collectors.toList());
+
+        recipeIngredientRepository.saveAll(recipeIngredients);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(RECIPE_INGREDIENTS + 1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(INSERT_STATEMENTS);
+    }
+
+    private List<GeneratedRecipe> toGeneratedRecipes(final Collection<Recipe> recipes) {
+        return recipes.stream()
+                .map(recipeMapper::toGeneratedRecipe)
+                .collect(Collectors.toList());
+    }
+}
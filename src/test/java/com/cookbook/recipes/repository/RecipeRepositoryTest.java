@@ -1,14 +1,19 @@
 package com.cookbook.recipes.repository;
 
+import com.cookbook.recipes.model.Recipe;
 import lombok.val;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
 
+import java.util.List;
 import java.util.Set;
 
+import static com.cookbook.recipes.repository.spec.RecipeSpecifications.*;
 import static com.cookbook.recipes.util.TestDataFactory.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.data.jpa.domain.Specification.where;
 
 @DataJpaTest
 class RecipeRepositoryTest {
@@ -28,77 +33,89 @@ class RecipeRepositoryTest {
     }
 
     @Test
-    void findByIdIn() {
-        val recipeActual = recipeRepository.findByIdIn(Set.of(RECIPE_ID_1, RECIPE_ID_2));
-
-        assertThat(recipeActual.size()).isEqualTo(2);
+    void findVersionById() {
+        assertThat(recipeRepository.findVersionById(RECIPE_ID_1)).contains(0L);
+        assertThat(recipeRepository.findVersionById(Long.MAX_VALUE)).isEmpty();
     }
 
     @Test
-    void findByIdNotIn() {
-        val recipeActual = recipeRepository.findByIdNotIn(Set.of(RECIPE_ID_1, RECIPE_ID_2));
+    void findRecipeIdsAfter() {
+        val recipeIdsActual = recipeRepository.findRecipeIdsAfter(RECIPE_ID_1, Pageable.ofSize(2));
 
-        assertThat(recipeActual.size()).isEqualTo(2);
+        assertThat(recipeIdsActual.size()).isEqualTo(2);
+        assertThat(recipeIdsActual.get(0)).isEqualTo(RECIPE_ID_2);
+        assertThat(recipeIdsActual.get(1)).isGreaterThan(RECIPE_ID_2);
     }
 
     @Test
-    void findByInstructionContainingIgnoreCase() {
-        val recipeActual = recipeRepository.findByInstructionContainingIgnoreCase(INSTRUCTION_TEXT);
+    void findByIdInOrderByIdAsc() {
+        val recipeActual = recipeRepository.findByIdInOrderByIdAsc(List.of(RECIPE_ID_2, RECIPE_ID_1));
 
-        assertThat(recipeActual.size()).isEqualTo(2);
+        assertThat(recipeActual).extracting(Recipe::getId).containsExactly(RECIPE_ID_1, RECIPE_ID_2);
     }
 
     @Test
-    void findByIsVegetarian() {
-        val recipeActual = recipeRepository.findByIsVegetarian(IS_VEGETARIAN);
+    void streamAllByOrderByIdAsc() {
+        try (val recipeActual = recipeRepository.streamAllByOrderByIdAsc()) {
+            assertThat(recipeActual).extracting(Recipe::getId).isSorted().hasSize(4);
+        }
+    }
+
+    @Test
+    void findAll_instructionContainsIgnoreCase() {
+        val recipeActual = recipeRepository.findAll(where(instructionContainsIgnoreCase(INSTRUCTION_TEXT)));
 
         assertThat(recipeActual.size()).isEqualTo(2);
     }
 
     @Test
-    void findByNumberOfServings() {
-        val recipeActual = recipeRepository.findByNumberOfServings(NUMBER_OF_SERVINGS);
+    void findAll_numberOfServingsEqual() {
+        val recipeActual = recipeRepository.findAll(where(numberOfServingsEqual(NUMBER_OF_SERVINGS)));
 
         assertThat(recipeActual.size()).isEqualTo(1);
     }
 
     @Test
-    void findByNumberOfServingsGreaterThanEqual() {
-        val recipeActual = recipeRepository.findByNumberOfServingsGreaterThanEqual(NUMBER_OF_SERVINGS);
+    void findAll_ingredientsContains() {
+        // Recipe 1 contains both egg and sugar and is still returned only once
+        val recipeActual = recipeRepository.findAll(where(ingredientsContains(SET_OF_INGREDIENT_NAMES)));
 
-        assertThat(recipeActual.size()).isEqualTo(2);
+        assertThat(recipeActual).extracting(Recipe::getId).containsExactlyInAnyOrder(RECIPE_ID_1, 3L);
     }
 
     @Test
-    void findByIsVegetarianAndNumberOfServings() {
-        val recipeActual = recipeRepository
-                .findByIsVegetarianAndNumberOfServings(IS_VEGETARIAN, NUMBER_OF_SERVINGS);
+    void findRecipeIds() {
+        val recipeIdsActual = recipeRepository.findRecipeIds(where(ingredientsContains(SET_OF_INGREDIENT_NAMES)));
 
-        assertThat(recipeActual.size()).isEqualTo(1);
+        // Ids only, ordered like the recipes of findAll are returned by the servlet stack
+        assertThat(recipeIdsActual).containsExactly(RECIPE_ID_1, 3L);
     }
 
     @Test
-    void findByRecipeIngredientsIngredientNameIn() {
-        val recipeActual = recipeRepository
-                .findByRecipeIngredientsIngredientNameIn(SET_OF_INGREDIENT_NAMES);
+    void findRecipeIds_noPredicate() {
+        assertThat(recipeRepository.findRecipeIds(where(null))).isSorted().hasSize(4);
+    }
 
-        assertThat(recipeActual.size()).isEqualTo(2);
+    @Test
+    void findAll_ingredientsContainsAndIsVegetarian() {
+        val recipeActual = recipeRepository.findAll(where(ingredientsContains(SET_OF_INGREDIENT_NAMES))
+                .and(recipeIsVegetarian(IS_VEGETARIAN)));
+
+        assertThat(recipeActual).extracting(Recipe::getId).containsExactly(RECIPE_ID_1);
     }
 
     @Test
-    void findByRecipeIngredientsIngredientNameAndNumberOfServings() {
-        val recipeActual = recipeRepository
-                .findByRecipeIngredientsIngredientNameInAndNumberOfServings(SET_OF_INGREDIENT_NAMES, NUMBER_OF_SERVINGS);
+    void findAll_ingredientsDoNotContain() {
+        val recipeActual = recipeRepository.findAll(where(ingredientsDoNotContain(SET_OF_INGREDIENT_NAMES)));
 
-        assertThat(recipeActual.size()).isEqualTo(1);
+        assertThat(recipeActual).extracting(Recipe::getId).containsExactlyInAnyOrder(RECIPE_ID_2, 4L);
     }
 
     @Test
-    void findByInstructionContainingIgnoreCaseAndRecipeIngredientsIngredientNameNot() {
-        val recipeActual = recipeRepository
-                .findByInstructionContainingIgnoreCaseAndRecipeIngredientsIngredientNameNotIn(
-                        INSTRUCTION_TEXT, SET_OF_INGREDIENT_NAMES);
+    void findAll_ingredientsDoNotContainAndInstructionContains() {
+        val recipeActual = recipeRepository.findAll(where(ingredientsDoNotContain(Set.of("flour")))
+                .and(instructionContainsIgnoreCase(INSTRUCTION_TEXT)));
 
-        assertThat(recipeActual.size()).isEqualTo(2);
+        assertThat(recipeActual).extracting(Recipe::getId).containsExactly(RECIPE_ID_2);
     }
 }
\ No newline at end of file
@@ -0,0 +1,156 @@
+package com.cookbook.recipes.repository.spec;
+
+import com.cookbook.recipes.model.FilterCriteria;
+import com.cookbook.recipes.model.FilterExpression;
+import com.cookbook.recipes.model.FilterOperator;
+import com.cookbook.recipes.model.FilterValues;
+import com.cookbook.recipes.model.Recipe;
+import com.cookbook.recipes.repository.RecipeRepository;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.cookbook.recipes.util.TestDataFactory.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+class RecipeFilterCompilerTest {
+
+    private final RecipeRepository recipeRepository;
+    private final RecipeFilterCompiler recipeFilterCompiler = new RecipeFilterCompiler();
+
+    @Autowired
+    public RecipeFilterCompilerTest(RecipeRepository recipeRepository) {
+        this.recipeRepository = recipeRepository;
+    }
+
+    @Test
+    void compile_and() {
+        val filterExpression = getLogicalExpression(FilterOperator.AND,
+                getFilterExpression(FilterOperator.INCL_INGREDIENTS,
+                        FilterValues.builder().ingredients(SET_OF_INGREDIENT_NAMES).build()),
+                getFilterExpression(FilterOperator.IS_VEGETARIAN,
+                        FilterValues.builder().isVegetarian(IS_VEGETARIAN).build()));
+
+        val recipeActual = recipeRepository.findAll(compile(filterExpression));
+
+        assertThat(recipeActual).extracting(Recipe::getId).containsExactly(RECIPE_ID_1);
+    }
+
+    @Test
+    void compile_or() {
+        val filterExpression = getLogicalExpression(FilterOperator.OR,
+                getFilterExpression(FilterOperator.IS_VEGETARIAN,
+                        FilterValues.builder().isVegetarian(IS_VEGETARIAN).build()),
+                getFilterExpression(FilterOperator.NUMBER_OF_SERVINGS_GREATER_THAN_EQUAL,
+                        FilterValues.builder().numberOfServings(5).build()));
+
+        val recipeActual = recipeRepository.findAll(compile(filterExpression));
+
+        assertThat(recipeActual).extracting(Recipe::getId).containsExactlyInAnyOrder(RECIPE_ID_1, 3L, 4L);
+    }
+
+    @Test
+    void compile_not() {
+        val filterExpression = getLogicalExpression(FilterOperator.AND,
+                getFilterExpression(FilterOperator.INSTRUCTION,
+                        FilterValues.builder().instruction(INSTRUCTION_TEXT).build()),
+                getLogicalExpression(FilterOperator.NOT,
+                        getFilterExpression(FilterOperator.INCL_INGREDIENTS,
+                                FilterValues.builder().ingredients(Set.of("flour")).build())));
+
+        val recipeActual = recipeRepository.findAll(compile(filterExpression));
+
+        assertThat(recipeActual).extracting(Recipe::getId).containsExactly(RECIPE_ID_2);
+    }
+
+    @Test
+    void compile_sameShapeBindsItsOwnValues() {
+        val vegetarianRecipes = recipeRepository.findAll(compile(
+                getFilterExpression(FilterOperator.IS_VEGETARIAN,
+                        FilterValues.builder().isVegetarian(true).build())));
+        val notVegetarianRecipes = recipeRepository.findAll(compile(
+                getFilterExpression(FilterOperator.IS_VEGETARIAN,
+                        FilterValues.builder().isVegetarian(false).build())));
+
+        assertThat(vegetarianRecipes).extracting(Recipe::getId).containsExactlyInAnyOrder(RECIPE_ID_1, 4L);
+        assertThat(notVegetarianRecipes).extracting(Recipe::getId).containsExactlyInAnyOrder(RECIPE_ID_2, 3L);
+    }
+
+    @Test
+    void compile_instructionIsSubstringIgnoringCase() {
+        // "OUR" is found in "flour"
+        val instructionFilterExpression = getLogicalExpression(FilterOperator.AND,
+                getFilterExpression(FilterOperator.INSTRUCTION, FilterValues.builder().instruction("OUR").build()),
+                getFilterExpression(FilterOperator.IS_VEGETARIAN,
+                        FilterValues.builder().isVegetarian(true).build()));
+        val notInstructionFilterExpression = getLogicalExpression(FilterOperator.NOT,
+                getFilterExpression(FilterOperator.INSTRUCTION, FilterValues.builder().instruction("our").build()));
+
+        assertThat(recipeRepository.findAll(compile(instructionFilterExpression)))
+                .extracting(Recipe::getId).containsExactly(4L);
+        assertThat(recipeRepository.findAll(compile(notInstructionFilterExpression)))
+                .extracting(Recipe::getId).containsExactlyInAnyOrder(RECIPE_ID_1, 3L);
+    }
+
+    @Test
+    void fromFilterCriteria() {
+        val filterValues = FilterValues.builder()
+                .ingredients(Set.of("salt"))
+                .instruction(INSTRUCTION_TEXT)
+                .isVegetarian(IS_VEGETARIAN)
+                .numberOfServings(2)
+                .build();
+
+        val filterExpression = recipeFilterCompiler.fromFilterCriteria(
+                FilterCriteria.INGREDIENTS_AND_INSTRUCTION_AND_IS_VEGETARIAN_AND_NUMBER_OF_SERVINGS, filterValues);
+        val recipeActual = recipeRepository.findAll(compile(filterExpression));
+
+        assertThat(filterExpression.getOperator()).isEqualTo(FilterOperator.AND);
+        assertThat(filterExpression.getOperands()).hasSize(4);
+        assertThat(recipeActual).extracting(Recipe::getId).containsExactly(4L);
+    }
+
+    @Test
+    void compile_filterValueIsMissing() {
+        val filterExpression = getFilterExpression(FilterOperator.INCL_INGREDIENTS, FilterValues.builder().build());
+
+        val exception = assertThrows(IllegalArgumentException.class,
+                () -> compile(filterExpression));
+
+        assertThat(exception.getMessage()).isEqualTo("Filter operator incl_ingredients requires ingredients");
+    }
+
+    @Test
+    void compile_filterExpressionIsTooDeep() {
+        var filterExpression = getFilterExpression(FilterOperator.IS_VEGETARIAN,
+                FilterValues.builder().isVegetarian(IS_VEGETARIAN).build());
+        for (int depth = 0; depth < 8; depth++) {
+            filterExpression = getLogicalExpression(FilterOperator.NOT, filterExpression);
+        }
+        val tooDeepFilterExpression = filterExpression;
+
+        val exception = assertThrows(IllegalArgumentException.class,
+                () -> compile(tooDeepFilterExpression));
+
+        assertThat(exception.getMessage()).isEqualTo("Filter expression is nested deeper than 8 levels");
+    }
+
+    private Specification<Recipe> compile(final FilterExpression filterExpression) {
+        return recipeFilterCompiler.compile(filterExpression);
+    }
+
+    private FilterExpression getLogicalExpression(final FilterOperator filterOperator,
+                                                  final FilterExpression... operands) {
+        return FilterExpression.builder()
+                .operator(filterOperator)
+                .operands(List.of(operands))
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.cookbook.recipes.util;
+
+import lombok.val;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/*
+Records the SQL statements executed through the DataSource, registered by SqlStatementsConfig.
+
+Statements of every thread are recorded, so requests completed on the executors of the application count as well.
+A batch counts as one statement. A test resets the recorded statements before the call it asserts, e.g.
+    sqlStatements.reset();
+    ...POST /recipes/filter...
+    sqlStatements.assertSelectsAtMost(2);
+A failed assertion lists the statements, so the offending SQL shows in the test report.
+ */
+public class SqlStatements implements QueryExecutionListener {
+
+    private static final String SELECT = "select";
+    private static final String INSERT = "insert";
+    private static final String UPDATE = "update";
+    private static final String DELETE = "delete";
+
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+
+    public void reset() {
+        statements.clear();
+    }
+
+    public List<String> getStatements() {
+        return List.copyOf(statements);
+    }
+
+    public void assertSelectsAtMost(final int maximum) {
+        assertAtMost(SELECT, maximum, statement -> startsWith(statement, SELECT));
+    }
+
+    public void assertInsertsAtMost(final int maximum) {
+        assertAtMost(INSERT, maximum, statement -> startsWith(statement, INSERT));
+    }
+
+    public void assertUpdatesAtMost(final int maximum) {
+        assertAtMost(UPDATE, maximum, statement -> startsWith(statement, UPDATE));
+    }
+
+    public void assertDeletesAtMost(final int maximum) {
+        assertAtMost(DELETE, maximum, statement -> startsWith(statement, DELETE));
+    }
+
+    public void assertStatementsAtMost(final int maximum) {
+        assertAtMost("SQL", maximum, statement -> true);
+    }
+
+    @Override
+    public void beforeQuery(final ExecutionInfo executionInfo, final List<QueryInfo> queryInfos) {
+    }
+
+    @Override
+    public void afterQuery(final ExecutionInfo executionInfo, final List<QueryInfo> queryInfos) {
+        for (val queryInfo : queryInfos) {
+            statements.add(executionInfo.isBatch()
+                    ? String.format("%s [batch of %d]", queryInfo.getQuery(), executionInfo.getBatchSize())
+                    : queryInfo.getQuery());
+        }
+    }
+
+    private void assertAtMost(final String type, final int maximum, final Predicate<String> isType) {
+        val matchingStatements = statements.stream()
+                .filter(isType)
+                .collect(Collectors.toList());
+        if (matchingStatements.size() > maximum) {
+            throw new AssertionError(String.format("Expected at most %d %s statements, but %d were executed:%n%s",
+                    maximum, type, matchingStatements.size(), IntStream.range(0, matchingStatements.size())
+                            .mapToObj(index -> String.format("%d. %s", index + 1, matchingStatements.get(index)))
+                            .collect(Collectors.joining(System.lineSeparator()))));
+        }
+    }
+
+    private static boolean startsWith(final String statement, final String keyword) {
+        return statement.stripLeading().toLowerCase(Locale.ROOT).startsWith(keyword);
+    }
+}
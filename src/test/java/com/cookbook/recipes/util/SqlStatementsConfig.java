@@ -0,0 +1,41 @@
+package com.cookbook.recipes.util;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/*
+Wraps the DataSource of a test context, so its statements are recorded by the SqlStatements bean.
+Imported by the tests which assert statement counts, e.g. @Import(SqlStatementsConfig.class).
+ */
+@TestConfiguration
+public class SqlStatementsConfig {
+
+    @Bean
+    public SqlStatements sqlStatements() {
+        return new SqlStatements();
+    }
+
+    // Static, so the post processor does not initialize this configuration before the other beans
+    @Bean
+    public static BeanPostProcessor sqlStatementsDataSourcePostProcessor(
+            final ObjectProvider<SqlStatements> sqlStatements) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create((DataSource) bean)
+                            .name(beanName)
+                            .listener(sqlStatements.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
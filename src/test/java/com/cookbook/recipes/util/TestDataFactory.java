@@ -3,6 +3,7 @@ package com.cookbook.recipes.util;
 import com.cookbook.recipes.model.*;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Set;
 
 public class TestDataFactory {
@@ -10,6 +11,7 @@ public class TestDataFactory {
     public static final Long RECIPE_ID_1 = 1L;
     public static final Long RECIPE_ID_2 = 2L;
     public static final String NAME = "name";
+    public static final String BATCH_ERROR = "Recipe requires a name";
     public static final String DESCRIPTION = "description";
     public static final String IMAGE = "image";
     public static final String INSTRUCTION = "Add eggs, flour, to a pan. Bake at 200 for 1 hour";
@@ -18,6 +20,10 @@ public class TestDataFactory {
     public static final LocalDate CREATED_BY = LocalDate.of(2022, 7, 21);
     public static final Boolean IS_VEGETARIAN = true;
     public static final Integer NUMBER_OF_SERVINGS = 3;
+    public static final String NEXT_CURSOR = "Mg";
+    public static final Long VERSION = 3L;
+    public static final String ETAG = "\"3\"";
+    public static final String RECIPES_ETAG = "\"1666000000000-12\"";
 
     public static final Long RECIPE_INGREDIENT_ID_LONG = 1L;
     public static final Integer RECIPE_INGREDIENT_ID_INT = 1;
@@ -48,6 +54,15 @@ public class TestDataFactory {
                 .build();
     }
 
+    public static FilterExpression getFilterExpression(
+            final FilterOperator filterOperator,
+            final FilterValues filterValues) {
+        return FilterExpression.builder()
+                .operator(filterOperator)
+                .filterValues(filterValues)
+                .build();
+    }
+
     public static Recipe getRecipe() {
         return Recipe.builder()
                 .id(RECIPE_ID_1)
@@ -59,6 +74,7 @@ public class TestDataFactory {
                 .isVegetarian(IS_VEGETARIAN)
                 .numberOfServings(NUMBER_OF_SERVINGS)
                 .recipeIngredients(null)
+                .version(VERSION)
                 .build();
     }
 
@@ -82,6 +98,15 @@ public class TestDataFactory {
                         .build();
     }
 
+    public static RecipeIngredient getRecipeIngredient(final Long recipeIngredientId, final Ingredient ingredient) {
+        return RecipeIngredient.builder()
+                .id(recipeIngredientId)
+                .ingredient(ingredient)
+                .amount(AMOUNT)
+                .measure(MEASURE)
+                .build();
+    }
+
     public static Ingredient getIngredient() {
         return Ingredient.builder()
                 .id(INGREDIENT_ID_LONG)
@@ -100,6 +125,7 @@ public class TestDataFactory {
                 .isVegetarian(IS_VEGETARIAN)
                 .numberOfServings(NUMBER_OF_SERVINGS)
                 .recipeIngredients(Set.of(getGeneratedRecipeIngredient()))
+                .version(VERSION)
                 .build();
     }
 
@@ -114,6 +140,16 @@ public class TestDataFactory {
                         .build();
     }
 
+    public static GeneratedRecipeBatchResults getGeneratedRecipeBatchResults() {
+        return GeneratedRecipeBatchResults.builder()
+                .created(1)
+                .failed(1)
+                .results(List.of(
+                        GeneratedRecipeBatchResult.builder().index(0).recipeId(RECIPE_ID_1).build(),
+                        GeneratedRecipeBatchResult.builder().index(1).error(BATCH_ERROR).build()))
+                .build();
+    }
+
     public static GeneratedIngredient getGeneratedIngredient() {
         return GeneratedIngredient.builder()
                 .ingredientId(INGREDIENT_ID_LONG)
@@ -1,15 +1,18 @@
 package com.cookbook.recipes.web.operations;
 
+import com.cookbook.recipes.config.ExecutorConfig;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.restassured.http.Header;
 import io.restassured.module.mockmvc.RestAssuredMockMvc;
 import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MockMvc;
 
 @WebMvcTest(RecipesOperation.class)
+@Import(ExecutorConfig.class)
 abstract public class BaseIntegrationTest {
 
 
@@ -0,0 +1,166 @@
+package com.cookbook.recipes.web.operations;
+
+import com.cookbook.recipes.domain.cache.SearchResultCache;
+import com.cookbook.recipes.domain.services.RecipeBatchService;
+import com.cookbook.recipes.model.GeneratedFilterCriteria;
+import com.cookbook.recipes.model.GeneratedFilterValues;
+import com.cookbook.recipes.model.GeneratedIngredient;
+import com.cookbook.recipes.model.GeneratedRecipe;
+import com.cookbook.recipes.model.GeneratedRecipeIngredient;
+import com.cookbook.recipes.repository.RecipeRepository;
+import com.cookbook.recipes.util.SqlStatements;
+import com.cookbook.recipes.util.SqlStatementsConfig;
+import io.restassured.module.mockmvc.RestAssuredMockMvc;
+import lombok.val;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.cookbook.recipes.config.CachingConfig.RECIPES_CACHE;
+import static com.cookbook.recipes.util.TestDataFactory.*;
+
+/*
+N+1 guard of the endpoints: the statements of a request must not grow with the number of recipes it returns.
+The recipes are added to a database of their own, so the other tests keep the data of the DataLoader.
+The caches are cleared before every request, so the statements of a miss are counted.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:statement-count-db")
+@AutoConfigureMockMvc
+@Import(SqlStatementsConfig.class)
+class RecipesOperationStatementCountTest {
+
+    private static final int RECIPES = 100;
+    private static final Set<String> RECIPE_INGREDIENT_NAMES = Set.of("egg", "sugar", "salt");
+
+    private final MockMvc mockMvc;
+    private final SqlStatements sqlStatements;
+    private final RecipeRepository recipeRepository;
+    private final RecipeBatchService recipeBatchService;
+    private final SearchResultCache searchResultCache;
+    private final CacheManager cacheManager;
+
+    @Autowired
+    public RecipesOperationStatementCountTest(MockMvc mockMvc, SqlStatements sqlStatements,
+                                              RecipeRepository recipeRepository,
+                                              RecipeBatchService recipeBatchService,
+                                              SearchResultCache searchResultCache, CacheManager cacheManager) {
+        this.mockMvc = mockMvc;
+        this.sqlStatements = sqlStatements;
+        this.recipeRepository = recipeRepository;
+        this.recipeBatchService = recipeBatchService;
+        this.searchResultCache = searchResultCache;
+        this.cacheManager = cacheManager;
+    }
+
+    @BeforeEach
+    void setup() {
+        // The context is shared by the tests, so the recipes are only added once
+        if (recipeRepository.count() < RECIPES) {
+            recipeBatchService.createRecipes(IntStream.range(0, RECIPES)
+                    .mapToObj(index -> getVegetarianRecipe())
+                    .collect(Collectors.toList()));
+        }
+        searchResultCache.onDataLoaded();
+        cacheManager.getCache(RECIPES_CACHE).clear();
+        RestAssuredMockMvc.mockMvc(mockMvc);
+        sqlStatements.reset();
+    }
+
+    @Test
+    void getAllRecipes() {
+        RestAssuredMockMvc
+                .given()
+                .when()
+                .async()
+                .get(getUrl() + "?limit=" + RECIPES)
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK.value())
+                .body("generated_recipes.size()", Matchers.equalTo(RECIPES));
+
+        sqlStatements.assertSelectsAtMost(2);
+    }
+
+    @Test
+    void getRecipeById() {
+        RestAssuredMockMvc
+                .given()
+                .when()
+                .async()
+                .get(getUrl() + RECIPE_ID_1)
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK.value());
+
+        sqlStatements.assertSelectsAtMost(1);
+    }
+
+    @Test
+    void postRecipesBySearchFilter() {
+        RestAssuredMockMvc
+                .given()
+                .contentType("application/json")
+                .body(getGeneratedSearchFilter(GeneratedFilterCriteria.IS_VEGETARIAN,
+                        GeneratedFilterValues.builder().isVegetarian(IS_VEGETARIAN).build()))
+                .when()
+                .async()
+                .post(getUrl() + "filter")
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK.value())
+                .body("generated_recipes.size()", Matchers.greaterThanOrEqualTo(RECIPES));
+
+        sqlStatements.assertSelectsAtMost(2);
+    }
+
+    @Test
+    void createRecipe() {
+        RestAssuredMockMvc
+                .given()
+                .contentType("application/json")
+                .body(getVegetarianRecipe())
+                .when()
+                .async()
+                .post(getUrl())
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.CREATED.value());
+
+        // The check for an existing recipe and one select per index updated with the new recipe
+        sqlStatements.assertSelectsAtMost(4);
+        // The recipe and its ingredients are inserted by one statement per table
+        sqlStatements.assertInsertsAtMost(2);
+    }
+
+    private static GeneratedRecipe getVegetarianRecipe() {
+        return GeneratedRecipe.builder()
+                .name(NAME)
+                .description(DESCRIPTION)
+                .instruction(INSTRUCTION)
+                .isVegetarian(IS_VEGETARIAN)
+                .numberOfServings(NUMBER_OF_SERVINGS)
+                .recipeIngredients(RECIPE_INGREDIENT_NAMES.stream()
+                        .map(ingredientName -> GeneratedRecipeIngredient.builder()
+                                .ingredient(GeneratedIngredient.builder().name(ingredientName).build())
+                                .amount(AMOUNT)
+                                .measure(GENERATED_MEASURE)
+                                .build())
+                        .collect(Collectors.toSet()))
+                .build();
+    }
+
+    private String getUrl() {
+        return "/recipes/";
+    }
+}
@@ -1,36 +1,59 @@
 package com.cookbook.recipes.web.operations;
 
+import com.cookbook.recipes.domain.exception.ExceptionHandler;
+import com.cookbook.recipes.domain.services.RecipeBatchService;
 import com.cookbook.recipes.domain.services.RecipeService;
+import com.cookbook.recipes.model.GeneratedRecipes;
 import io.restassured.module.mockmvc.RestAssuredMockMvc;
 import lombok.SneakyThrows;
+import lombok.val;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 
+import javax.persistence.OptimisticLockException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.cookbook.recipes.util.TestDataFactory.*;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 
 class RecipesOperationTest extends BaseIntegrationTest {
 
+    private static final String EXPORT_LINE = "{\"recipe_id\":1}\n";
+
     @MockBean
     private RecipeService recipeService;
+    @MockBean
+    private RecipeBatchService recipeBatchService;
 
     @Test
     @SneakyThrows
     void getAllRecipes() {
-        Mockito.when(recipeService.getAllRecipes()).thenReturn(List.of(getGeneratedRecipe()));
+        Mockito.when(recipeService.getRecipesETag()).thenReturn(RECIPES_ETAG);
+        Mockito.when(recipeService.getAllRecipes(null, 20)).thenReturn(GeneratedRecipes.builder()
+                .generatedRecipes(List.of(getGeneratedRecipe()))
+                .nextCursor(NEXT_CURSOR)
+                .build());
         RestAssuredMockMvc
                 .given()
                 .when()
+                .async()
                 .get(getUrl())
                 .peek()
                 .then()
                 .assertThat()
                 .statusCode(200)
+                .header("ETag", RECIPES_ETAG)
                 .and()
                 .body("generated_recipes.size()", Matchers.equalTo(1))
                 .body("generated_recipes.get(0).name", Matchers.equalTo(NAME))
@@ -40,7 +63,53 @@ class RecipesOperationTest extends BaseIntegrationTest {
                 .body("generated_recipes.get(0).recipeIngredients.get(0).recipe_ingredient_id",
                         Matchers.equalTo(RECIPE_INGREDIENT_ID_INT))
                 .body("generated_recipes.get(0).recipeIngredients.get(0).ingredient.ingredient_id",
-                        Matchers.equalTo(INGREDIENT_ID_INT));
+                        Matchers.equalTo(INGREDIENT_ID_INT))
+                .body("next_cursor", Matchers.equalTo(NEXT_CURSOR));
+    }
+
+    @Test
+    void getAllRecipes_notModified() {
+        Mockito.when(recipeService.getRecipesETag()).thenReturn(RECIPES_ETAG);
+        RestAssuredMockMvc
+                .given()
+                .header("If-None-Match", RECIPES_ETAG)
+                .when()
+                .async()
+                .get(getUrl())
+                .peek()
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.NOT_MODIFIED.value())
+                .header("ETag", RECIPES_ETAG)
+                .body(Matchers.emptyString());
+
+        // No recipe is read for a list which has not changed
+        Mockito.verify(recipeService, Mockito.never()).getAllRecipes(any(), any());
+    }
+
+    @Test
+    @SneakyThrows
+    void exportRecipes() {
+        val exportThreadName = new AtomicReference<String>();
+        Mockito.doAnswer(invocation -> {
+            exportThreadName.set(Thread.currentThread().getName());
+            invocation.<OutputStream>getArgument(0).write(EXPORT_LINE.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(recipeService).exportRecipes(any());
+        RestAssuredMockMvc
+                .given()
+                .when()
+                .async()
+                .get(getUrl() + "export")
+                .peek()
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK.value())
+                .and()
+                .contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                .body(Matchers.equalTo(EXPORT_LINE));
+        // The export holds a connection, so it runs on a thread of the bulk executor
+        assertThat(exportThreadName.get()).startsWith("bulk-");
     }
 
     @Test
@@ -49,11 +118,13 @@ class RecipesOperationTest extends BaseIntegrationTest {
         RestAssuredMockMvc
                 .given()
                 .when()
+                .async()
                 .get(getUrl() + RECIPE_ID_1)
                 .peek()
                 .then()
                 .assertThat()
                 .statusCode(200)
+                .header("ETag", ETAG)
                 .and()
                 .body("name", Matchers.equalTo(NAME))
                 .body("description", Matchers.equalTo(DESCRIPTION))
@@ -65,6 +136,59 @@ class RecipesOperationTest extends BaseIntegrationTest {
                         Matchers.equalTo(INGREDIENT_ID_INT));
     }
 
+    @Test
+    void getRecipeById_taskIsRejected() {
+        Mockito.when(recipeService.getRecipeById(RECIPE_ID_1)).thenThrow(new TaskRejectedException("Queue is full"));
+        RestAssuredMockMvc
+                .given()
+                .when()
+                .async()
+                .get(getUrl() + RECIPE_ID_1)
+                .peek()
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .header("Retry-After", "1");
+    }
+
+    @Test
+    void getRecipeById_notModified() {
+        Mockito.when(recipeService.getRecipeVersion(RECIPE_ID_1)).thenReturn(Optional.of(VERSION));
+        RestAssuredMockMvc
+                .given()
+                .header("If-None-Match", "W/" + ETAG)
+                .when()
+                .async()
+                .get(getUrl() + RECIPE_ID_1)
+                .peek()
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.NOT_MODIFIED.value())
+                .header("ETag", ETAG);
+
+        // Neither the recipe nor its ingredients are loaded
+        Mockito.verify(recipeService, Mockito.never()).getRecipeById(any());
+    }
+
+    @Test
+    void getRecipeById_modified() {
+        Mockito.when(recipeService.getRecipeVersion(RECIPE_ID_1)).thenReturn(Optional.of(VERSION));
+        Mockito.when(recipeService.getRecipeById(RECIPE_ID_1)).thenReturn(getGeneratedRecipe());
+        RestAssuredMockMvc
+                .given()
+                .header("If-None-Match", "\"2\"")
+                .when()
+                .async()
+                .get(getUrl() + RECIPE_ID_1)
+                .peek()
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK.value())
+                .header("ETag", ETAG)
+                .and()
+                .body("name", Matchers.equalTo(NAME));
+    }
+
     @Test
     void postRecipesBySearchFilter() {
         Mockito.when(recipeService.postRecipesBySearchFilter(any()))
@@ -75,6 +199,7 @@ class RecipesOperationTest extends BaseIntegrationTest {
                 .and()
                 .body(getGeneratedRecipe())
                 .when()
+                .async()
                 .post(getUrl() + "filter")
                 .peek()
                 .then()
@@ -101,6 +226,7 @@ class RecipesOperationTest extends BaseIntegrationTest {
                 .and()
                 .body(getGeneratedRecipe())
                 .when()
+                .async()
                 .post(getUrl())
                 .peek()
                 .then()
@@ -110,34 +236,149 @@ class RecipesOperationTest extends BaseIntegrationTest {
                 .header("Location", Matchers.notNullValue());
     }
 
+    @Test
+    void createRecipes() {
+        Mockito.when(recipeBatchService.createRecipes(any())).thenReturn(getGeneratedRecipeBatchResults());
+        RestAssuredMockMvc
+                .given()
+                .contentType("application/json")
+                .and()
+                .body(List.of(getGeneratedRecipe(), getGeneratedRecipe()))
+                .when()
+                .async()
+                .post(getUrl() + "batch")
+                .peek()
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK.value())
+                .and()
+                .body("created", Matchers.equalTo(1))
+                .body("failed", Matchers.equalTo(1))
+                .body("results.get(0).recipe_id", Matchers.equalTo(RECIPE_ID_1.intValue()))
+                .body("results.get(1).error", Matchers.equalTo(BATCH_ERROR));
+    }
+
+    @Test
+    @SneakyThrows
+    void importRecipes() {
+        Mockito.when(recipeBatchService.importRecipes(any())).thenReturn(getGeneratedRecipeBatchResults());
+        RestAssuredMockMvc
+                .given()
+                .contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                .and()
+                .body(EXPORT_LINE + EXPORT_LINE)
+                .when()
+                .async()
+                .post(getUrl() + "batch")
+                .peek()
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.OK.value())
+                .and()
+                .body("created", Matchers.equalTo(1))
+                .body("results.size()", Matchers.equalTo(2));
+    }
+
     @Test
     @SneakyThrows
     void updateRecipe() {
-        Mockito.doNothing().when(recipeService).updateRecipe(RECIPE_ID_1, getGeneratedRecipe());
+        Mockito.when(recipeService.updateRecipe(RECIPE_ID_1, getGeneratedRecipe(), ETAG)).thenReturn(VERSION + 1);
         RestAssuredMockMvc
                 .given()
                 .header(getCustomerHeader(RECIPE_ID_1.toString()))
+                .header("If-Match", ETAG)
                 .contentType("application/json")
                 .and()
                 .body(getGeneratedRecipe())
                 .when()
+                .async()
                 .put(getUrl() + RECIPE_ID_1)
                 .peek()
                 .then()
                 .assertThat()
-                .statusCode(HttpStatus.NO_CONTENT.value());
+                .statusCode(HttpStatus.NO_CONTENT.value())
+                .header("ETag", "\"4\"");
+    }
+
+    @Test
+    void updateRecipe_versionDoesNotMatch() {
+        Mockito.when(recipeService.updateRecipe(RECIPE_ID_1, getGeneratedRecipe(), "\"2\""))
+                .thenThrow(ExceptionHandler.createBusinessServiceException(HttpStatus.PRECONDITION_FAILED,
+                        "Recipe with id: 1 has been changed, its ETag is \"3\""));
+        RestAssuredMockMvc
+                .given()
+                .header(getCustomerHeader(RECIPE_ID_1.toString()))
+                .header("If-Match", "\"2\"")
+                .contentType("application/json")
+                .and()
+                .body(getGeneratedRecipe())
+                .when()
+                .async()
+                .put(getUrl() + RECIPE_ID_1)
+                .peek()
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value())
+                .header("ETag", Matchers.nullValue());
+    }
+
+    @Test
+    void updateRecipe_versionChangedConcurrently() {
+        Mockito.when(recipeService.updateRecipe(RECIPE_ID_1, getGeneratedRecipe(), null))
+                .thenThrow(new OptimisticLockException());
+        RestAssuredMockMvc
+                .given()
+                .header(getCustomerHeader(RECIPE_ID_1.toString()))
+                .contentType("application/json")
+                .and()
+                .body(getGeneratedRecipe())
+                .when()
+                .async()
+                .put(getUrl() + RECIPE_ID_1)
+                .peek()
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.PRECONDITION_FAILED.value())
+                .body("message", Matchers.equalTo("Recipe has been changed by another request"));
+    }
+
+    @Test
+    void patchRecipe() {
+        Mockito.when(recipeService.patchRecipe(any(), any(), any())).thenReturn(VERSION);
+        RestAssuredMockMvc
+                .given()
+                .header(getCustomerHeader(RECIPE_ID_1.toString()))
+                .contentType("application/merge-patch+json")
+                .and()
+                .body("{\"image\": \"" + IMAGE + "\", \"description\": null}")
+                .when()
+                .async()
+                .patch(getUrl() + RECIPE_ID_1)
+                .peek()
+                .then()
+                .assertThat()
+                .statusCode(HttpStatus.NO_CONTENT.value())
+                .header("ETag", ETAG);
+
+        // A null member is kept, it removes the field of the recipe
+        val mergePatch = new HashMap<String, Object>();
+        mergePatch.put("image", IMAGE);
+        mergePatch.put("description", null);
+        Mockito.verify(recipeService).patchRecipe(RECIPE_ID_1, mergePatch, null);
     }
 
     @Test
     void deleteRecipe() {
-        Mockito.doNothing().when(recipeService).deleteRecipe(RECIPE_ID_1);
+        Mockito.doNothing().when(recipeService).deleteRecipe(RECIPE_ID_1, ETAG);
         RestAssuredMockMvc
                 .given()
                 .header(getCustomerHeader(RECIPE_ID_1.toString()))
+                .header("If-Match", ETAG)
                 .contentType("application/json")
                 .and()
                 .body(getGeneratedRecipe())
                 .when()
+                .async()
                 .delete(getUrl() + RECIPE_ID_1)
                 .peek()
                 .then()
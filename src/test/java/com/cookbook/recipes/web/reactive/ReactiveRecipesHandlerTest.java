@@ -0,0 +1,140 @@
+package com.cookbook.recipes.web.reactive;
+
+import com.cookbook.recipes.model.GeneratedFilterCriteria;
+import com.cookbook.recipes.model.GeneratedFilterValues;
+import com.cookbook.recipes.model.GeneratedRecipe;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Set;
+
+import static com.cookbook.recipes.util.TestDataFactory.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The reads of the reactive profile against the data of the DataLoader
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles({"dev", "reactive"})
+class ReactiveRecipesHandlerTest {
+
+    private static final String RECIPE_ETAG = "\"0\"";
+
+    private final WebTestClient webTestClient;
+    private final Environment environment;
+
+    @Autowired
+    public ReactiveRecipesHandlerTest(WebTestClient webTestClient, Environment environment) {
+        this.webTestClient = webTestClient;
+        this.environment = environment;
+    }
+
+    @Test
+    void basePath() {
+        // The reads keep the URLs of the servlet stack of the active profile
+        assertThat(environment.getProperty("spring.webflux.base-path"))
+                .isEqualTo(environment.getProperty("server.servlet.context-path"))
+                .isEqualTo("/api");
+    }
+
+    @Test
+    void getAllRecipes() {
+        webTestClient.get().uri("/recipes?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody()
+                .jsonPath("$.generated_recipes.length()").isEqualTo(2)
+                .jsonPath("$.generated_recipes[1].recipe_id").isEqualTo(RECIPE_ID_2.intValue())
+                .jsonPath("$.generated_recipes[0].recipeIngredients.length()").isEqualTo(3)
+                .jsonPath("$.next_cursor").isNotEmpty();
+    }
+
+    @Test
+    void getAllRecipes_cursorIsNotValid() {
+        webTestClient.get().uri("/recipes?after=zz!z")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Cursor zz!z is not valid");
+    }
+
+    @Test
+    void getRecipeById() {
+        webTestClient.get().uri("/recipes/{recipe_id}", RECIPE_ID_1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, RECIPE_ETAG)
+                .expectBody()
+                .jsonPath("$.recipe_id").isEqualTo(RECIPE_ID_1.intValue());
+    }
+
+    @Test
+    void getRecipeById_notModified() {
+        webTestClient.get().uri("/recipes/{recipe_id}", RECIPE_ID_1)
+                .header(HttpHeaders.IF_NONE_MATCH, RECIPE_ETAG)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void getRecipeById_recipeDoesNotExist() {
+        webTestClient.get().uri("/recipes/{recipe_id}", Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo(String.format("Recipe with id: %s does not exist", Long.MAX_VALUE));
+    }
+
+    @Test
+    void postRecipesBySearchFilter() {
+        val generatedSearchFilter = getGeneratedSearchFilter(GeneratedFilterCriteria.INCL_INGREDIENTS,
+                GeneratedFilterValues.builder().ingredients(SET_OF_INGREDIENT_NAMES).build());
+
+        webTestClient.post().uri("/recipes/filter")
+                .bodyValue(generatedSearchFilter)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.generated_recipes.length()").isEqualTo(2)
+                .jsonPath("$.generated_recipes[0].recipe_id").isEqualTo(RECIPE_ID_1.intValue());
+    }
+
+    @Test
+    void postRecipesBySearchFilter_streamed() {
+        val generatedSearchFilter = getGeneratedSearchFilter(GeneratedFilterCriteria.INCL_INGREDIENTS,
+                GeneratedFilterValues.builder().ingredients(SET_OF_INGREDIENT_NAMES).build());
+
+        val generatedRecipesActual = webTestClient.post().uri("/recipes/filter")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(generatedSearchFilter)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(GeneratedRecipe.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(generatedRecipesActual).extracting(GeneratedRecipe::getRecipeId).containsExactly(RECIPE_ID_1, 3L);
+    }
+
+    @Test
+    void postRecipesBySearchFilter_recipeDoesNotExist() {
+        val generatedSearchFilter = getGeneratedSearchFilter(GeneratedFilterCriteria.INCL_INGREDIENTS,
+                GeneratedFilterValues.builder().ingredients(Set.of("unobtainium")).build());
+
+        webTestClient.post().uri("/recipes/filter")
+                .bodyValue(generatedSearchFilter)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}